@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javafx.geometry.Point2D;
+import org.ini4j.Ini;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Base state of all benchmarks that need a running game. The game is created from the default config with a fixed seed,
+ * so every trial starts with the same game. All players are joined and every seeker gets a random target and magnet.
+ * The number of players, seekers per player and goals are parameters of the benchmarks.
+ *
+ * @author karlz
+ */
+@State(Scope.Thread)
+public abstract class AbstractGameBenchmark {
+
+    @Param({"2", "8", "32"})
+    int players;
+
+    @Param({"5", "20"})
+    int seekers;
+
+    @Param({"5", "20"})
+    int goals;
+
+    Game game;
+
+    @Setup
+    public void setup() throws IOException {
+        Ini ini = new Ini(AbstractGameBenchmark.class.getResourceAsStream("/org/seekers/config.ini"));
+        ini.put("global", "players", players);
+        ini.put("global", "seekers", seekers);
+        ini.put("global", "goals", goals);
+        ini.put("global", "playtime", Integer.MAX_VALUE);
+        ini.put("global", "seed", 42);
+
+        GameMode mode = new StandardMode();
+        game = mode.createGame(new Game.Properties(ini), new Camp.Properties(ini), new Seeker.Properties(ini),
+                new Goal.Properties(ini));
+        game.reset(0);
+        for (int i = 0; i < players; i++) {
+            mode.createPlayer(game);
+        }
+        Random random = game.getRandom();
+        for (Seeker seeker : game.getSeekers()) {
+            Point2D target = game.getGameMap().getRandomPosition();
+            seeker.setTarget(target.getX(), target.getY());
+            seeker.setMagnet(random.nextInt(3) - 1.0);
+        }
+        game.setGameState(GameState.RUNNING);
+        prepare();
+    }
+
+    /**
+     * Called after the game was created and started. Subclasses can pick the entities they need.
+     */
+    protected void prepare() {
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seekers.grpc.service.CommandResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full tick of the game and the serialization of the game state that is sent to the players.
+ *
+ * @author karlz
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark extends AbstractGameBenchmark {
+
+    @Benchmark
+    public long tick() {
+        game.tick();
+        return game.getPassedPlaytime();
+    }
+
+    @Benchmark
+    public CommandResponse buildCommandResponse() {
+        return game.createCommandResponse();
+    }
+
+    @Benchmark
+    public byte[] serializeCommandResponse() {
+        return game.createCommandResponse().toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the integrators on a world with random physical state. The vector integrator is only used if the module
+ * {@code jdk.incubator.vector} is added to the forked JVM, otherwise both parameters measure the scalar integrator.
+ *
+ * @author karlz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntegratorBenchmark {
+
+    @Param({"128", "1024", "16384"})
+    int size;
+
+    @Param({"scalar", "vector"})
+    String integrator;
+
+    private final World world = new World();
+    private Integrator instance;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            int slot = world.allocate(1.0, 10.0, 0.02);
+            world.positionX[slot] = random.nextDouble() * 768;
+            world.positionY[slot] = random.nextDouble() * 768;
+            world.accelerationX[slot] = random.nextDouble() * 2 - 1;
+            world.accelerationY[slot] = random.nextDouble() * 2 - 1;
+            world.thrust[slot] = 0.1;
+        }
+        instance = "vector".equals(integrator) ? Integrator.create() : new ScalarIntegrator();
+    }
+
+    @Benchmark
+    public World integrate() {
+        instance.integrate(world, 768, 768);
+        return world;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the update of single physical objects inside a running game. The neighbourhood of the objects depends on
+ * the number of players, seekers and goals.
+ *
+ * @author karlz
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhysicalBenchmark extends AbstractGameBenchmark {
+
+    private final double[] buffer = new double[2];
+
+    private Seeker seeker;
+    private Seeker magnet;
+    private Goal goal;
+    private Goal other;
+
+    @Override
+    protected void prepare() {
+        seeker = game.getSeekers().get(0);
+        magnet = game.getSeekers().get(1);
+        goal = game.getGoals().get(0);
+        other = game.getGoals().get(1);
+
+        // Place the magnet inside the range of the magnetic force of the goal
+        magnet.setMagnet(1.0);
+        magnet.setPosition(goal.getX() + 20, goal.getY() + 20);
+    }
+
+    @Benchmark
+    public void updateSeeker() {
+        seeker.update();
+    }
+
+    @Benchmark
+    public void updateGoal() {
+        goal.update();
+    }
+
+    /**
+     * Benchmarks the collision of two overlapping goals. Goals are used because colliding seekers would disable each
+     * other. The goals are moved back before every collision, so this includes two position updates.
+     */
+    @Benchmark
+    public void collision() {
+        goal.setPosition(100, 100);
+        other.setPosition(105, 100);
+        goal.collision(other, goal.getRadius() + other.getRadius());
+    }
+
+    @Benchmark
+    public void magneticForce(Blackhole blackhole) {
+        blackhole.consume(magnet.getMagneticForce(goal.getX(), goal.getY(), buffer));
+        blackhole.consume(buffer[0]);
+        blackhole.consume(buffer[1]);
+    }
+
+    /**
+     * Benchmarks the sum of all magnetic forces that act on a goal.
+     */
+    @Benchmark
+    public void accelerateGoal() {
+        goal.accelerate();
+    }
+}
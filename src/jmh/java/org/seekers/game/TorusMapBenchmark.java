@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javafx.geometry.Point2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the distance functions of the {@link TorusMap}. Every invocation uses the next pair of a fixed set of
+ * random positions, so the branches of the wrapping are not predictable.
+ *
+ * @author karlz
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TorusMapBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final double[] x = new double[SIZE];
+    private final double[] y = new double[SIZE];
+    private final Point2D[] points = new Point2D[SIZE];
+    private final double[] buffer = new double[2];
+
+    private TorusMap map;
+    private int index;
+
+    @Setup
+    public void setup() {
+        map = new TorusMap(768, 768, new Random(42));
+        for (int i = 0; i < SIZE; i++) {
+            points[i] = map.getRandomPosition();
+            x[i] = points[i].getX();
+            y[i] = points[i].getY();
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double distance() {
+        int i = next();
+        return map.getDistance(points[i], points[SIZE - 1 - i]);
+    }
+
+    @Benchmark
+    public double primitiveDistance() {
+        int i = next();
+        return map.getDistance(x[i], y[i], x[SIZE - 1 - i], y[SIZE - 1 - i]);
+    }
+
+    @Benchmark
+    public double squaredDistance() {
+        int i = next();
+        return map.getSquaredDistance(x[i], y[i], x[SIZE - 1 - i], y[SIZE - 1 - i]);
+    }
+
+    @Benchmark
+    public Point2D difference() {
+        int i = next();
+        return map.getDifference(points[i], points[SIZE - 1 - i]);
+    }
+
+    @Benchmark
+    public void primitiveDifference(Blackhole blackhole) {
+        int i = next();
+        map.getDifference(x[i], y[i], x[SIZE - 1 - i], y[SIZE - 1 - i], buffer);
+        blackhole.consume(buffer[0]);
+        blackhole.consume(buffer[1]);
+    }
+
+    @Benchmark
+    public boolean isWithin() {
+        int i = next();
+        return map.isWithin(x[i], y[i], x[SIZE - 1 - i], y[SIZE - 1 - i], 100);
+    }
+}
@@ -18,11 +18,14 @@
 package org.seekers;
 
 import org.ini4j.Ini;
+import org.seekers.game.SimulationLoop;
 import org.seekers.game.StandardMode;
 import org.seekers.game.Tournament;
 import org.seekers.grpc.SeekersServer;
+import org.seekers.view.GameView;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,9 +61,20 @@ public class App extends Application {
 	 */
 	@Override
 	public void init() throws IOException {
+		loadConfig(config);
+	}
+
+	/**
+	 * Creates all missing content folders and loads the config.ini file. If the config file does not exist, the default
+	 * config will be copied.
+	 *
+	 * @param config the ini object the config is loaded into
+	 * @throws IOException if it could not read from the config file
+	 */
+	static void loadConfig(@Nonnull Ini config) throws IOException {
 		Path path = Path.of("config.ini");
 		if (!Files.exists(path)) {
-			Files.copy(Objects.requireNonNull(getClass().getResourceAsStream("config.ini")), path);
+			Files.copy(Objects.requireNonNull(App.class.getResourceAsStream("config.ini")), path);
 		}
 		for (String folder : new String[] {"players", "drivers", "results"}) {
 			path = Path.of(folder);
@@ -78,9 +92,12 @@ public class App extends Application {
 
 	@Override
 	public void start(Stage stage) throws Exception {
-		final SeekersServer server = new SeekersServer(stage, config).setGameMode(new StandardMode())
-				.setTournament(new Tournament("players"));
+		// Every room ticks on its own thread, the window usually has a single room and only shows the first one
+		final SeekersServer server = new SeekersServer(config, SimulationLoop::new).setGameMode(new StandardMode())
+				.setTournament(new Tournament("players")).setOnShutdown(() -> Platform.runLater(stage::close));
 		server.start();
+		final SeekersServer.Room room = server.getRooms().get(0); // The window shows the first room
+		stage.setScene(new GameView(room.getGame(), room.getLoop()));
 		stage.setOnCloseRequest(c -> {
 			logger.info("Try unloading plugins and stopping server on stage close request");
 			try {
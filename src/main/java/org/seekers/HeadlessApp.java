@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers;
+
+import org.ini4j.Ini;
+import org.seekers.game.StandardMode;
+import org.seekers.game.Tournament;
+import org.seekers.grpc.TournamentExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Runs the {@code SeekersServer} without a window. No JavaFX toolkit is started, the games are ticked by
+ * {@link org.seekers.game.ScheduledLoop}s on a shared pool of threads. The matches of the tournament are played in
+ * parallel in the rooms of a {@link TournamentExecutor}. The application exits as soon as the tournament is over.
+ *
+ * @author karlz
+ */
+public class HeadlessApp {
+    private static final Logger logger = LoggerFactory.getLogger(HeadlessApp.class);
+
+    private HeadlessApp() {
+    }
+
+    /**
+     * Loads the config, starts the servers and waits until they are shut down. The shutdown hook stops the servers if
+     * the application is terminated early, it does nothing if the tournament is already over.
+     *
+     * @throws IOException          if it could not read from the config file or bind a server
+     * @throws InterruptedException if the waiting for the servers is interrupted
+     */
+    public static void launch() throws IOException, InterruptedException {
+        Ini config = new Ini();
+        App.loadConfig(config);
+
+        final TournamentExecutor executor = new TournamentExecutor(config, new StandardMode(),
+                new Tournament("players"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                executor.stop();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ex) {
+                logger.error(ex.getMessage(), ex);
+            }
+        }, "shutdown-hook"));
+        executor.start();
+        executor.awaitTermination();
+    }
+}
@@ -19,9 +19,12 @@ package org.seekers;
 
 import javafx.application.Application;
 
+import java.util.Arrays;
+
 /**
  * Launcher instance for the application. This class exists to prevent possible future breaking changes. With this
- * class, the main method is always located inside the same class, independently of JavaFX and gRPC.
+ * class, the main method is always located inside the same class, independently of JavaFX and gRPC. If the argument
+ * {@code --headless} is passed, the server runs without any graphics.
  *
  * @author karlz
  */
@@ -30,8 +33,13 @@ public class Launcher {
      * Launches the application.
      *
      * @param args the command line arguments
+     * @throws Exception if the headless server could not be started
      */
-    public static void main(String[] args) {
-        Application.launch(App.class, args);
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--headless")) {
+            HeadlessApp.launch();
+        } else {
+            Application.launch(App.class, args);
+        }
     }
 }
@@ -18,13 +18,13 @@
 package org.seekers.game;
 
 import javafx.geometry.Point2D;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 import org.ini4j.Ini;
 import org.seekers.grpc.Corresponding;
 import org.seekers.grpc.game.CampOuterClass;
+import org.seekers.grpc.game.Vector2DOuterClass;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * The Camp class represents a camp in the game. It is associated with a
@@ -32,12 +32,15 @@ import javax.annotation.Nonnull;
  *
  * @author karlz
  */
-public class Camp extends Rectangle implements Corresponding<CampOuterClass.Camp> {
+public class Camp implements Corresponding<CampOuterClass.Camp> {
 
     private final @Nonnull Player player;
     private final @Nonnull Properties properties;
+    private final int id;
+    private final @Nonnull String identifier;
 
     private @Nonnull Point2D position = Point2D.ZERO;
+    private @Nullable CampOuterClass.Camp message; // Last built message, reused while nothing changed
 
     /**
      * Constructs a new Camp object associated with the specified player and
@@ -50,15 +53,21 @@ public class Camp extends Rectangle implements Corresponding<CampOuterClass.Camp
         this.player = player;
         this.properties = properties;
 
-        setWidth(properties.width);
-        setHeight(properties.height);
-        setFill(Color.TRANSPARENT);
-        setStroke(player.getColor());
-        setStrokeWidth(6);
-
-        player.getGame().getBack().getChildren().add(this);
         player.setCamp(this);
         player.getGame().getCamps().add(this);
+        this.id = player.getGame().identify(this);
+        this.identifier = Integer.toString(id);
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Nonnull
+    @Override
+    public String getIdentifier() {
+        return identifier;
     }
 
     public static class Properties {
@@ -79,10 +88,20 @@ public class Camp extends Rectangle implements Corresponding<CampOuterClass.Camp
      * @param p the position to check
      * @return true if the position is inside the camp, false otherwise
      */
-    @Override
     public boolean contains(@Nonnull Point2D p) {
-        Point2D deltaR = position.subtract(p);
-        return 2 * Math.abs(deltaR.getX()) < properties.width && 2 * Math.abs(deltaR.getY()) < properties.height;
+        return contains(p.getX(), p.getY());
+    }
+
+    /**
+     * Checks if a given position is inside the camp without allocating a vector.
+     *
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @return true if the position is inside the camp, false otherwise
+     */
+    public boolean contains(double x, double y) {
+        return 2 * Math.abs(position.getX() - x) < properties.width
+                && 2 * Math.abs(position.getY() - y) < properties.height;
     }
 
 
@@ -108,14 +127,32 @@ public class Camp extends Rectangle implements Corresponding<CampOuterClass.Camp
 
     public void setPosition(@Nonnull Point2D position) {
         this.position = position;
-        setLayoutX(position.getX() - properties.width * 0.5);
-        setLayoutY(position.getY() - properties.height * 0.5);
+    }
+
+    /**
+     * @return the width of the camp
+     */
+    public double getWidth() {
+        return properties.width;
+    }
+
+    /**
+     * @return the height of the camp
+     */
+    public double getHeight() {
+        return properties.height;
     }
 
     @Override
     public CampOuterClass.Camp associated() {
-        return CampOuterClass.Camp.newBuilder().setId(getIdentifier()).setPlayerId(player.getIdentifier())
-                .setPosition(TorusMap.toMessage(position)).setWidth(properties.width).setHeight(properties.height).build();
+        final CampOuterClass.Camp cached = message;
+        final Vector2DOuterClass.Vector2D center =
+                TorusMap.toMessage(cached != null ? cached.getPosition() : null, position.getX(), position.getY());
+        if (cached != null && cached.getPosition() == center)
+            return cached;
+        message = CampOuterClass.Camp.newBuilder().setId(getIdentifier()).setPlayerId(player.getIdentifier())
+                .setPosition(center).setWidth(properties.width).setHeight(properties.height).build();
+        return message;
     }
 
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The contact pipeline of a game. After all physical objects have moved, the overlapping pairs are collected into a
+ * contact buffer and resolved afterward in a single pass. Every pair is only found once, by the object with the lower
+ * slot, so a collision is never handled twice and the result does not depend on the update order of the entities.
+ *
+ * <p>The collection only reads the world and the grid. It can therefore run in parallel: the slots are split into
+ * chunks with their own query and buffer, and the chunks are merged in the order of their slots. The contacts are
+ * always the same as in a serial collection.
+ *
+ * <p>Before a contact is resolved, its {@link Physical#contact(Physical) contact callback} is called. Game-specific
+ * rules, like the disabling of seekers, are implemented there.
+ *
+ * @author karlz
+ */
+public class Contacts {
+
+    private static final int CHUNK_SIZE = 64;
+
+    private final @Nonnull World world;
+    private final @Nonnull Grid<Physical<?>> grid;
+
+    private final @Nonnull Buffer contacts;
+    private final @Nonnull List<Buffer> chunks = new ArrayList<>();
+
+    /**
+     * Creates a new contact pipeline that uses the given grid as broadphase.
+     *
+     * @param world the world of all physical objects
+     * @param grid  the broadphase grid
+     */
+    public Contacts(@Nonnull World world, @Nonnull Grid<Physical<?>> grid) {
+        this.world = world;
+        this.grid = grid;
+        this.contacts = new Buffer();
+    }
+
+    /**
+     * Collects all overlapping pairs into the contact buffer. Each candidate of the broadphase grid is tested against
+     * the objects with a higher slot only, so every pair is tested once.
+     *
+     * @param map the map that measures the distances
+     */
+    public void collect(@Nonnull GameMap map) {
+        collect(map, null);
+    }
+
+    /**
+     * Collects all overlapping pairs into the contact buffer. If a pool is given, the slots are collected in chunks
+     * on the pool.
+     *
+     * @param map  the map that measures the distances
+     * @param pool the pool for a parallel collection, or null for a serial collection
+     */
+    public void collect(@Nonnull GameMap map, @Nullable ForkJoinPool pool) {
+        final int size = world.getSize();
+        if (pool == null) {
+            contacts.collect(map, 0, size);
+            return;
+        }
+        final int count = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        while (chunks.size() < count) {
+            chunks.add(new Buffer());
+        }
+        pool.invoke(new ParallelRange(0, count, 1, chunk -> chunks.get(chunk)
+                .collect(map, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE))));
+        contacts.clear();
+        for (int chunk = 0; chunk < count; chunk++) {
+            contacts.addAll(chunks.get(chunk));
+        }
+    }
+
+    /**
+     * Resolves all collected contacts in the order they were found. Calls the contact callback of the first object of
+     * the pair and then resolves the collision.
+     */
+    public void solve() {
+        for (int i = 0; i < contacts.size; i++) {
+            Physical<?> physical = grid.getPhysical(contacts.first[i]);
+            Physical<?> another = grid.getPhysical(contacts.second[i]);
+            physical.contact(another);
+            physical.collision(another, contacts.distances[i]);
+        }
+    }
+
+    /**
+     * @return the number of contacts found by the last collection
+     */
+    public int getSize() {
+        return contacts.size;
+    }
+
+    /**
+     * A buffer of contacts with its own query of the grid.
+     */
+    private class Buffer {
+        private final @Nonnull Grid<Physical<?>>.Query query = grid.newQuery();
+
+        private int[] first = new int[CHUNK_SIZE];
+        private int[] second = new int[CHUNK_SIZE];
+        private double[] distances = new double[CHUNK_SIZE];
+        private int size = 0;
+
+        private void collect(@Nonnull GameMap map, int from, int to) {
+            clear();
+            for (int slot = from; slot < to; slot++) {
+                if (!grid.contains(slot))
+                    continue;
+                final int count = query.query(slot);
+                final int[] candidates = query.getCandidates();
+                for (int i = 0; i < count; i++) {
+                    final int other = candidates[i];
+                    if (other < slot)
+                        continue;
+                    double min = world.radius[slot] + world.radius[other];
+                    if (map.isWithin(world.positionX[slot], world.positionY[slot], world.positionX[other],
+                            world.positionY[other], min)) {
+                        add(slot, other, min);
+                    }
+                }
+            }
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void add(int slot, int other, double distance) {
+            ensureCapacity(size + 1);
+            first[size] = slot;
+            second[size] = other;
+            distances[size] = distance;
+            size++;
+        }
+
+        private void addAll(@Nonnull Buffer buffer) {
+            ensureCapacity(size + buffer.size);
+            System.arraycopy(buffer.first, 0, first, size, buffer.size);
+            System.arraycopy(buffer.second, 0, second, size, buffer.size);
+            System.arraycopy(buffer.distances, 0, distances, size, buffer.size);
+            size += buffer.size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > first.length) {
+                final int length = Math.max(capacity, first.length * 2);
+                first = Arrays.copyOf(first, length);
+                second = Arrays.copyOf(second, length);
+                distances = Arrays.copyOf(distances, length);
+            }
+        }
+    }
+}
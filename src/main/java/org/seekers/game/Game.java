@@ -17,60 +17,65 @@
 
 package org.seekers.game;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.geometry.Insets;
-import javafx.scene.Group;
-import javafx.scene.Scene;
-import javafx.scene.SceneAntialiasing;
-import javafx.scene.control.Label;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
-import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.util.Duration;
+import com.google.protobuf.BytesValue;
+import javafx.geometry.Point2D;
 import org.ini4j.Ini;
-import org.seekers.Launcher;
 import org.seekers.grpc.Corresponding;
 import org.seekers.grpc.service.CommandResponse;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 import java.util.function.Consumer;
 
 /**
  * The Game class represents a game environment where players, seekers, goals,
- * and camps interact. It manages the game state, updates the positions of game
- * entities, and provides visual rendering.
+ * and camps interact. It manages the game state and updates the positions of game
+ * entities. The game itself is a pure model without any graphics, it is advanced by a {@link GameLoop} and can
+ * optionally be rendered by a view.
  *
  * @author karlz
  * @author joendter
  */
-public class Game extends Scene {
+public class Game {
+
+    private static final int PARALLEL_THRESHOLD = 32;
 
     // Game objects
-    private final @Nonnull List<Entity> entities = new ArrayList<>();
-    private GameState gameState;
+    private final @Nonnull Registry<Physical<?>> physicals = new Registry<>();
+    private final @Nonnull Registry<Player> players = new Registry<>();
+    private final @Nonnull World world = new World();
+    private final @Nonnull Grid<Physical<?>> grid;
+    private final @Nonnull Contacts contacts;
+    private final @Nonnull Integrator integrator = Integrator.create();
+    private final @Nullable ForkJoinPool pool;
+    private final @Nonnull IntConsumer update = i -> physicals.get(i).update();
+    private Grid<Seeker> magnets;
+    private volatile GameState gameState;
     private GameMap gameMap;
     private long tick = 0;
+    private final @Nonnull Random random;
+    private volatile boolean publishing = false;
+    private volatile @Nullable Snapshot snapshot;
+    private volatile @Nullable CommandResponse response;
+    private long responseTick = -1;
+    private @Nullable BytesValue packed;
+    private long packedTick = -1;
+    private final @Nonnull Metrics metrics = new Metrics();
+    private long tickStart;
+    private volatile @Nonnull Corresponding<?>[] identified = new Corresponding<?>[64]; // Entities by id
+    private int identifiedCount = 0;
 
     // Cached types for gRPC fast access
-    private final @Nonnull List<Player> players = new ArrayList<>();
     private final @Nonnull List<Seeker> seekers = new ArrayList<>();
     private final @Nonnull List<Goal> goals = new ArrayList<>();
     private final @Nonnull List<Camp> camps = new ArrayList<>();
 
-    // Graphics
-    private final @Nonnull Label time = new Label();
-    private final @Nonnull VBox info = new VBox(5);
-    private final @Nonnull Group front = new Group();
-    private final @Nonnull Group back = new Group();
-    private final @Nonnull Timeline timeline;
-
     // Properties
     private final @Nonnull Properties gameProperties;
     private final @Nonnull Camp.Properties campProperties;
@@ -80,36 +85,22 @@ public class Game extends Scene {
     // Events
     private @Nullable Consumer<Game> onGameStarted;
     private @Nullable Consumer<Game> onGameFinished;
+    private @Nullable Consumer<Goal> onGoalScored;
 
     /**
-     * Constructs a new Game object. Initializes the game environment, creates the
-     * game rendering components, and starts the game timeline.
+     * Constructs a new Game object. Initializes the game environment. The game will not tick until it is started by a
+     * game loop.
      */
-    public Game(@Nonnull BorderPane parent, @Nonnull Game.Properties gameProperties, @Nonnull Camp.Properties campProperties,
+    public Game(@Nonnull Game.Properties gameProperties, @Nonnull Camp.Properties campProperties,
                 @Nonnull Seeker.Properties seekerProperties, @Nonnull Goal.Properties goalProperties) {
-        super(parent, gameProperties.width, gameProperties.height, true, SceneAntialiasing.BALANCED);
         this.gameProperties = gameProperties;
         this.campProperties = campProperties;
         this.seekerProperties = seekerProperties;
         this.goalProperties = goalProperties;
-        this.timeline = new Timeline(new KeyFrame(
-                Duration.millis(getGameProperties().tickDuration), e -> {
-            for (Entity entity : List.copyOf(getEntities())) {
-                entity.update();
-            }
-            getTime().setText("[ " + (tick++) + " ]");
-        }));
-        this.timeline.setCycleCount(getGameProperties().playtime);
-        this.timeline.setOnFinished(e -> setGameState(GameState.FINISHED));
-
-        time.setFont(Font.loadFont(Launcher.class.getResourceAsStream("PixelFont.otf"), 16));
-        time.setTextFill(Color.WHITESMOKE);
-        getInfo().setPadding(new Insets(10));
-
-        parent.setTop(getInfo());
-        parent.getChildren().addAll(getBack(), getFront());
-        parent.setBottom(time);
-        parent.setBackground(new Background(new BackgroundFill(Color.gray(.1), null, null)));
+        this.grid = new Grid<>(world, gameProperties.width, gameProperties.height);
+        this.contacts = new Contacts(world, grid);
+        this.random = gameProperties.isSeeded() ? new Random(gameProperties.seed) : new Random();
+        this.pool = gameProperties.parallel ? ForkJoinPool.commonPool() : null;
     }
 
     /**
@@ -126,54 +117,316 @@ public class Game extends Scene {
         public Properties(Ini ini) {
             playtime = ini.fetch(SECTION, "playtime", int.class);
             tickDuration = ini.fetch(SECTION, "tick-duration", double.class);
+            double fetched = ini.fetch(SECTION, "speed", double.class);
+            speed = fetched > 0 ? fetched : 1.0;
             players = ini.fetch(SECTION, "players", int.class);
             seekers = ini.fetch(SECTION, "seekers", int.class);
             goals = ini.fetch(SECTION, "goals", int.class);
             width = ini.fetch("map", "width", double.class);
             height = ini.fetch("map", "height", int.class);
+            String fetchedSeed = ini.fetch(SECTION, "seed");
+            seed = (fetchedSeed == null || fetchedSeed.isBlank()) ? null : Long.valueOf(fetchedSeed.trim());
+            parallel = ini.fetch(SECTION, "parallel", boolean.class);
+            lockstep = ini.fetch(SECTION, "lockstep", boolean.class);
+            fetched = ini.fetch(SECTION, "lockstep-deadline", double.class);
+            lockstepDeadline = fetched > 0 ? fetched : tickDuration / speed;
         }
 
         // Global properties
         final int playtime;
         final double tickDuration;
+        final double speed;
         final int players;
         final int seekers;
         final int goals;
+        final @Nullable Long seed;
+        final boolean parallel;
+        final boolean lockstep;
+        final double lockstepDeadline;
 
         // Map properties
         final double width;
         final double height;
+
+        /**
+         * @return the number of ticks of a match
+         */
+        public int getPlaytime() {
+            return playtime;
+        }
+
+        /**
+         * @return the duration of a single tick in milliseconds
+         */
+        public double getTickDuration() {
+            return tickDuration;
+        }
+
+        /**
+         * @return the number of players of a match
+         */
+        public int getPlayers() {
+            return players;
+        }
+
+        /**
+         * @return the factor by which the game loop runs faster than real time
+         */
+        public double getSpeed() {
+            return speed;
+        }
+
+        /**
+         * @return true if a seed is configured and the game runs in deterministic mode
+         */
+        public boolean isSeeded() {
+            return seed != null;
+        }
+
+        /**
+         * @return the seed of all random sources, or null if the game is not deterministic
+         */
+        @Nullable
+        public Long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return true if the physical objects are updated in parallel
+         */
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        /**
+         * @return true if the game advances as soon as every player has sent a command
+         */
+        public boolean isLockstep() {
+            return lockstep;
+        }
+
+        /**
+         * @return the maximum duration of a tick in lockstep mode in milliseconds
+         */
+        public double getLockstepDeadline() {
+            return lockstepDeadline;
+        }
+
+        /**
+         * @return the width of the map
+         */
+        public double getWidth() {
+            return width;
+        }
+
+        /**
+         * @return the height of the map
+         */
+        public double getHeight() {
+            return height;
+        }
+    }
+
+    /**
+     * Metrics of the ticks of the game. They show which phase of a tick is slow and how many commands the players
+     * send. All recorders are allocation-free, so they are always enabled. The metrics are cleared when the game is
+     * reset.
+     */
+    public static final class Metrics {
+        private final @Nonnull Histogram ticks = Histogram.ofNanos();
+        private final @Nonnull Histogram commands = Histogram.ofNanos();
+        private final @Nonnull Histogram responses = Histogram.ofNanos();
+        private final @Nonnull Histogram physics = Histogram.ofNanos();
+        private final @Nonnull Histogram commandsPerTick = Histogram.ofCounts();
+        private final @Nonnull AtomicLong noOps = new AtomicLong();
+
+        /**
+         * @return the duration of whole ticks
+         */
+        @Nonnull
+        public Histogram getTicks() {
+            return ticks;
+        }
+
+        /**
+         * @return the duration of applying the posted commands
+         */
+        @Nonnull
+        public Histogram getCommands() {
+            return commands;
+        }
+
+        /**
+         * @return the duration of sending the responses to the players
+         */
+        @Nonnull
+        public Histogram getResponses() {
+            return responses;
+        }
+
+        /**
+         * @return the duration of the physics, from computing the accelerations to solving the contacts
+         */
+        @Nonnull
+        public Histogram getPhysics() {
+            return physics;
+        }
+
+        /**
+         * @return the number of applied commands per tick
+         */
+        @Nonnull
+        public Histogram getCommandsPerTick() {
+            return commandsPerTick;
+        }
+
+        /**
+         * @return the number of applied commands that did not change the target or the magnet of their seeker
+         */
+        public long getNoOps() {
+            return noOps.get();
+        }
+
+        void countNoOp() {
+            noOps.incrementAndGet();
+        }
+
+        private void reset() {
+            ticks.reset();
+            commands.reset();
+            responses.reset();
+            physics.reset();
+            commandsPerTick.reset();
+            noOps.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return "tick " + ticks + ", commands " + commands + ", responses " + responses + ", physics " + physics
+                    + ", commands per tick " + commandsPerTick + ", no-ops " + getNoOps();
+        }
+    }
+
+    /**
+     * Advances the game by a single tick. Updates all entities and finishes the game once the playtime is over. Does
+     * nothing if the game is not running. A tick has two phases:
+     * <ol>
+     *     <li>Compute: All physical objects compute their acceleration from the state of the last tick. They only
+     *     write their own slot, so this phase runs on a fork-join pool if the game is parallel. The overlapping pairs
+     *     are collected in parallel as well.</li>
+     *     <li>Commit: All changes that affect other objects are applied one after another in the order of the
+     *     registry: the {@link Physical#commit() commits}, the {@link Integrator}, the displacements and the
+     *     {@link Contacts contacts}. Finally, the goals are adopted by the camps they are in.</li>
+     * </ol>
+     * Before both phases, the commands in the mailboxes of all players are applied, then the players are updated in the
+     * order of their registry. Both registries are locked during
+     * the tick, so entities that are added or removed by the tick only take effect after the tick. A parallel tick
+     * always has the same result as a serial tick.
+     */
+    public synchronized void tick() {
+        if (gameState != GameState.RUNNING)
+            return;
+        players.lock();
+        physicals.lock();
+        tickStart = System.nanoTime();
+        try {
+            int applied = 0;
+            for (int i = 0; i < players.size(); i++) {
+                applied += players.get(i).drain();
+            }
+            metrics.commandsPerTick.record(applied);
+            final long drained = System.nanoTime();
+            metrics.commands.record(drained - tickStart);
+            for (int i = 0; i < players.size(); i++) {
+                players.get(i).update();
+            }
+            final long responded = System.nanoTime();
+            metrics.responses.record(responded - drained);
+
+            // Compute
+            if (pool != null) {
+                pool.invoke(new ParallelRange(0, physicals.size(), PARALLEL_THRESHOLD, update));
+            } else {
+                for (int i = 0; i < physicals.size(); i++) {
+                    physicals.get(i).update();
+                }
+            }
+
+            // Commit
+            for (int i = 0; i < physicals.size(); i++) {
+                physicals.get(i).commit();
+            }
+            integrator.integrate(world, gameProperties.width, gameProperties.height);
+            for (int i = 0; i < physicals.size(); i++) {
+                physicals.get(i).displacement();
+            }
+            contacts.collect(gameMap, pool);
+            contacts.solve();
+            for (int i = 0; i < goals.size(); i++) {
+                goals.get(i).adopt();
+            }
+            final long solved = System.nanoTime();
+            metrics.physics.record(solved - responded);
+            metrics.ticks.record(solved - tickStart);
+        } finally {
+            players.unlock();
+            physicals.unlock();
+        }
+        tick++;
+        if (publishing) {
+            snapshot = new Snapshot(this);
+        }
+        if (tick >= gameProperties.playtime) {
+            setGameState(GameState.FINISHED);
+        }
     }
 
     /**
      * Resets the game. This will:
      * <ol>
      *     <li>Destroy all entities</li>
-     *     <li>Clears the scene</li>
+     *     <li>Reseed the random source from the seed and the match, if the game is seeded</li>
+     *     <li>Place the goals at new random positions</li>
      *     <li>Resets all changed properties</li>
      * </ol>
+     * A seeded match therefore only depends on the seed, the match and the commands of the players, not on the
+     * matches that were played before.
+     *
+     * @param match identifies the next match, for example the hash of the files of its players
      */
-    public synchronized void reset() {
-        // Destroy entities and clear cache
-        entities.clear();
+    public synchronized void reset(long match) {
+        // Destroy entities and clear cache, the goals are kept. The slots are released in reverse order, so the next
+        // seekers get the same slots again.
+        for (int i = seekers.size() - 1; i >= 0; i--) {
+            final Seeker seeker = seekers.get(i);
+            physicals.remove(seeker);
+            grid.remove(seeker.getSlot());
+            magnets.remove(seeker.getSlot());
+            world.release(seeker.getSlot());
+        }
         players.clear();
         seekers.clear();
         camps.clear();
-
-        // Clear scene content
-        getBack().getChildren().clear();
-        getFront().getChildren().clear();
-        getInfo().getChildren().clear();
-
-        // Add goals back
-        for (Goal goal : getGoals()) {
-            getFront().getChildren().add(goal);
-            getEntities().add(goal);
+        response = null;
+        responseTick = -1;
+        packed = null;
+        packedTick = -1;
+        metrics.reset();
+        identified = new Corresponding<?>[identified.length];
+        identifiedCount = 0;
+        if (gameProperties.isSeeded()) {
+            random.setSeed(gameProperties.seed + match * 0x9E3779B97F4A7C15L);
+        }
+        for (Goal goal : goals) {
+            goal.identify();
+            goal.reset();
+            goal.setVelocity(Point2D.ZERO);
         }
 
         // Reset property
         setGameState(GameState.PREPARING);
         tick = 0;
+        publishSnapshot();
     }
 
     /**
@@ -185,92 +438,245 @@ public class Game extends Scene {
         return players.size() < gameProperties.players;
     }
 
+    /**
+     * Checks if every player has sent a command and waits for the next tick. In lockstep mode, the game loop ticks as
+     * soon as the game is ready. Must only be called by the game loop.
+     *
+     * @return true if there is at least one player and all players are waiting, false otherwise
+     */
+    public boolean isReady() {
+        if (players.isEmpty())
+            return false;
+        for (int i = 0; i < players.size(); i++) {
+            if (!players.get(i).isWaiting())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the scores of all players to the results of the tournament. The tournament may be shared with other games,
+     * so the results are merged while holding the lock of the tournament.
+     *
+     * @param tournament the tournament
+     */
     public void addToTournament(Tournament tournament) {
         double sum = 0;
         for (Player player : players) {
-            tournament.getResults().computeIfAbsent(player.getName(), n -> new ArrayList<>());
             sum += player.getScore();
         }
-        for (Player player : players) {
-            int score = (int) Math.round(100 * (sum == 0 ? 1.0 / players.size() : player.getScore() / sum));
-            tournament.getResults().get(player.getName()).add(score);
+        synchronized (tournament) {
+            for (Player player : players) {
+                int score = (int) Math.round(100 * (sum == 0 ? 1.0 / players.size() : player.getScore() / sum));
+                tournament.getResults().computeIfAbsent(player.getName(), n -> new ArrayList<>()).add(score);
+            }
         }
     }
 
     /**
+     * Creates a new response with the current status of the game.
+     *
      * @return the current status of the game
      */
-    public synchronized CommandResponse.Builder getCommandResponse() {
+    @Nonnull
+    public synchronized CommandResponse createCommandResponse() {
         return CommandResponse.newBuilder().addAllPlayers(Corresponding.transform(getPlayers()))
             .addAllCamps(Corresponding.transform(getCamps()))
             .addAllSeekers(Seeker.transform(getSeekers()))
             .addAllGoals(Goal.transform(getGoals()))
-            .setPassedPlaytime(getPassedPlaytime());
+            .setPassedPlaytime(getPassedPlaytime())
+            .build();
     }
 
     /**
-     * @return the list of entities
+     * Returns the response of the current tick. The response is created by the first player that needs it, all other
+     * players of the same tick share the same instance. Must only be called by the game loop.
+     *
+     * @return the status of the game at the start of the current tick
      */
     @Nonnull
-    public List<Entity> getEntities() {
-        return entities;
+    CommandResponse publishCommandResponse() {
+        CommandResponse published = response;
+        if (published == null || responseTick != tick) {
+            published = createCommandResponse();
+            responseTick = tick;
+            response = published;
+        }
+        return published;
     }
 
     /**
-     * @return the list of seekers
+     * Returns the {@link PackedState packed state} of the current tick. Like the response, it is encoded once per tick
+     * and shared by all players. Must only be called by the game loop.
+     *
+     * @return the packed state of the game at the start of the current tick
      */
     @Nonnull
-	public List<Seeker> getSeekers() {
-        return seekers;
+    BytesValue publishPackedState() {
+        BytesValue published = packed;
+        if (published == null || packedTick != tick) {
+            published = PackedState.encode(this);
+            packedTick = tick;
+            packed = published;
+        }
+        return published;
     }
 
     /**
-     * @return the list of players
+     * Returns the last response that was sent to the players. Reading it never blocks the game.
+     *
+     * @return the last published response, or null if no response was published in this match yet
+     */
+    @Nullable
+    public CommandResponse getCommandResponse() {
+        return response;
+    }
+
+    /**
+     * Publishes a snapshot of the current state. Entities that are added or removed outside of a tick, for example by
+     * a joining player or a reset, only become visible to a view once a snapshot was published. Must only be called by
+     * the thread that changes the game.
+     */
+    public void publishSnapshot() {
+        snapshot = new Snapshot(this);
+    }
+
+    /**
+     * Returns the snapshot that was published at the end of the last tick or after the last change outside of a tick.
+     * Reading it never blocks the game.
+     *
+     * @return the last published snapshot, or null if no snapshot was published yet
+     */
+    @Nullable
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * If publishing is enabled, the game publishes a {@link Snapshot} at the end of every tick. Publishing is disabled
+     * by default, so games without a view do not copy their state every tick. Changes outside of a tick are always
+     * {@link #publishSnapshot() published}.
+     *
+     * @param publishing true to publish snapshots, false otherwise
+     */
+    public void setPublishing(boolean publishing) {
+        this.publishing = publishing;
+    }
+
+    /**
+     * Returns the random source of this game. Every random decision of the game must be made with this source. If the
+     * game properties are {@link Properties#isSeeded() seeded}, the same seed and the same commands will always
+     * result in the same game.
+     *
+     * @return the random source of this game
      */
     @Nonnull
-	public List<Player> getPlayers() {
-        return players;
+    public Random getRandom() {
+        return random;
     }
 
     /**
-     * @return the list of goals
+     * Assigns the next dense id to an entity. The ids start at zero for every match, the goals are identified anew
+     * when the game is reset. Must only be called by the game loop.
+     *
+     * @param entity the entity
+     * @return the id of the entity
+     */
+    int identify(@Nonnull Corresponding<?> entity) {
+        Corresponding<?>[] table = identified;
+        if (identifiedCount == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[identifiedCount] = entity;
+        identified = table; // Publishes the entity to other threads
+        return identifiedCount++;
+    }
+
+    /**
+     * Finds an entity by its id in constant time. May be called from any thread.
+     *
+     * @param id the id of the entity
+     * @return the entity, or null if there is no entity with this id
+     */
+    @CheckForNull
+    public Corresponding<?> getIdentified(int id) {
+        final Corresponding<?>[] table = identified;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    /**
+     * @return the registry of all physical objects
      */
     @Nonnull
-	public List<Goal> getGoals() {
-        return goals;
+    public Registry<Physical<?>> getPhysicals() {
+        return physicals;
     }
 
     /**
-     * @return the list of camps
+     * @return the world that stores the physical state of all physical objects
      */
     @Nonnull
-	public List<Camp> getCamps() {
-        return camps;
+    public World getWorld() {
+        return world;
     }
 
+    /**
+     * @return the broadphase grid of all physical objects
+     */
     @Nonnull
-    public VBox getInfo() {
-        return info;
+    public Grid<Physical<?>> getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return the contact pipeline that resolves all collisions
+     */
+    @Nonnull
+    public Contacts getContacts() {
+        return contacts;
+    }
+
+    /**
+     * The magnet grid only contains seekers with an active magnet. Its range is the cutoff of the magnetic force,
+     * which is a tenth of the map diameter.
+     *
+     * @return the cell list of all active magnets
+     */
+    @CheckReturnValue
+    public Grid<Seeker> getMagnetGrid() {
+        return magnets;
     }
 
+    /**
+     * @return the list of seekers
+     */
     @Nonnull
-    public Group getBack() {
-        return back;
+	public List<Seeker> getSeekers() {
+        return seekers;
     }
 
+    /**
+     * @return the registry of all players
+     */
     @Nonnull
-    public Group getFront() {
-        return front;
+	public Registry<Player> getPlayers() {
+        return players;
     }
 
+    /**
+     * @return the list of goals
+     */
     @Nonnull
-    public Label getTime() {
-        return time;
+	public List<Goal> getGoals() {
+        return goals;
     }
 
+    /**
+     * @return the list of camps
+     */
     @Nonnull
-    public Timeline getTimeline() {
-        return timeline;
+	public List<Camp> getCamps() {
+        return camps;
     }
 
     /**
@@ -280,6 +686,21 @@ public class Game extends Scene {
         return tick;
     }
 
+    /**
+     * @return the metrics of the ticks of the game
+     */
+    @Nonnull
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} at the start of the current tick
+     */
+    long getTickStart() {
+        return tickStart;
+    }
+
     @Nonnull
     public Properties getGameProperties() {
         return gameProperties;
@@ -307,6 +728,7 @@ public class Game extends Scene {
 
     public void setGameMap(@Nonnull GameMap gameMap) {
         this.gameMap = gameMap;
+        this.magnets = new Grid<>(world, gameProperties.width, gameProperties.height, gameMap.getDiameter() / 10);
     }
 
     @CheckReturnValue
@@ -315,11 +737,12 @@ public class Game extends Scene {
     }
 
     public void setGameState(@Nonnull GameState gameState) {
-        if (getGameState() == GameState.PREPARING && gameState == GameState.RUNNING && getOnGameStarted() != null)
+        final GameState previous = this.gameState;
+        this.gameState = gameState;
+        if (previous == GameState.PREPARING && gameState == GameState.RUNNING && getOnGameStarted() != null)
             getOnGameStarted().accept(this);
-        if (getGameState() == GameState.RUNNING && gameState == GameState.FINISHED && getOnGameFinished() != null)
+        if (previous == GameState.RUNNING && gameState == GameState.FINISHED && getOnGameFinished() != null)
             getOnGameFinished().accept(this);
-        this.gameState = gameState;
     }
 
     public void setOnGameStarted(@Nonnull Consumer<Game> onGameStarted) {
@@ -339,4 +762,13 @@ public class Game extends Scene {
     public Consumer<Game> getOnGameFinished() {
         return onGameFinished;
     }
+
+    public void setOnGoalScored(@Nonnull Consumer<Goal> onGoalScored) {
+        this.onGoalScored = onGoalScored;
+    }
+
+    @Nullable
+    public Consumer<Goal> getOnGoalScored() {
+        return onGoalScored;
+    }
 }
@@ -1,48 +1,47 @@
-/*
- * Copyright (C) 2022  Seekers Contributors
- *
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- *
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <https://www.gnu.org/licenses/>.
- */
-
-package org.seekers.game;
-
-import javafx.scene.layout.Pane;
-
-import javax.annotation.Nonnull;
-
-/**
- * Base class for all animations.
- *
- * @author karlz
- */
-public abstract class Animation extends Pane implements Entity {
-
-	private final @Nonnull Game game;
-
-	protected Animation(@Nonnull Game game) {
-		this.game = game;
-		game.getEntities().add(this);
-		game.getFront().getChildren().add(this);
-	}
-
-	public void destroy() {
-		game.getFront().getChildren().remove(this);
-		game.getEntities().remove(this);
-	}
-
-	@Nonnull
-	public Game getGame() {
-		return game;
-	}
-}
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.Executor;
+
+/**
+ * A game loop advances a game tick by tick. It also owns the thread on which the game state may be altered, so every
+ * change from outside the game, for example a command of a client, must be executed by the loop.
+ *
+ * @author karlz
+ */
+public interface GameLoop extends Executor {
+
+    /**
+     * Starts ticking the game. The loop stops ticking by itself as soon as the game is no longer running.
+     *
+     * @param game the game to tick
+     */
+    void start(@Nonnull Game game);
+
+    /**
+     * Stops the loop and releases all of its resources.
+     */
+    void stop();
+
+    /**
+     * @return the ticks per second that were achieved recently, or 0 if the loop does not measure them
+     */
+    double getTicksPerSecond();
+}
@@ -49,6 +49,57 @@ public interface GameMap {
         return getDifference(p0, p1).magnitude();
     }
 
+    /**
+     * @param x0 the x coordinate of the first point P<sub>0</sub>
+     * @param y0 the y coordinate of the first point P<sub>0</sub>
+     * @param x1 the x coordinate of the second point P<sub>1</sub>
+     * @param y1 the y coordinate of the second point P<sub>1</sub>
+     * @return the distance between the fist and second point.
+     */
+    default double getDistance(double x0, double y0, double x1, double y1) {
+        return Math.sqrt(getSquaredDistance(x0, y0, x1, y1));
+    }
+
+    /**
+     * @param x0 the x coordinate of the first point P<sub>0</sub>
+     * @param y0 the y coordinate of the first point P<sub>0</sub>
+     * @param x1 the x coordinate of the second point P<sub>1</sub>
+     * @param y1 the y coordinate of the second point P<sub>1</sub>
+     * @return the squared distance between the fist and second point.
+     */
+    default double getSquaredDistance(double x0, double y0, double x1, double y1) {
+        double distance = getDistance(new Point2D(x0, y0), new Point2D(x1, y1));
+        return distance * distance;
+    }
+
+    /**
+     * Writes the difference between the first and second point into a buffer. The x component is stored at index 0,
+     * the y component at index 1.
+     *
+     * @param x0     the x coordinate of the first point P<sub>0</sub>
+     * @param y0     the y coordinate of the first point P<sub>0</sub>
+     * @param x1     the x coordinate of the second point P<sub>1</sub>
+     * @param y1     the y coordinate of the second point P<sub>1</sub>
+     * @param buffer the buffer with a length of at least two
+     */
+    default void getDifference(double x0, double y0, double x1, double y1, @Nonnull double[] buffer) {
+        Point2D difference = getDifference(new Point2D(x0, y0), new Point2D(x1, y1));
+        buffer[0] = difference.getX();
+        buffer[1] = difference.getY();
+    }
+
+    /**
+     * @param x0       the x coordinate of the first point P<sub>0</sub>
+     * @param y0       the y coordinate of the first point P<sub>0</sub>
+     * @param x1       the x coordinate of the second point P<sub>1</sub>
+     * @param y1       the y coordinate of the second point P<sub>1</sub>
+     * @param distance the distance to compare with
+     * @return true if the distance between the first and second point is less than the given distance.
+     */
+    default boolean isWithin(double x0, double y0, double x1, double y1, double distance) {
+        return getSquaredDistance(x0, y0, x1, y1) < distance * distance;
+    }
+
     /**
      * @param p0 the first point P<sub>0</sub>
      * @param p1 the second point P<sub>1</sub>
@@ -17,17 +17,14 @@
 
 package org.seekers.game;
 
-import javafx.geometry.Point2D;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import org.ini4j.Ini;
 import org.seekers.grpc.game.GoalOuterClass;
 import org.seekers.grpc.game.PhysicalOuterClass;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
 import java.util.List;
 
 /**
@@ -40,11 +37,18 @@ import java.util.List;
 public class Goal extends Physical<Goal.Properties> {
 
     public static Iterable<GoalOuterClass.Goal> transform(Collection<? extends Goal> goals) {
-        return goals.stream().map(Goal::associated).collect(Collectors.toList());
+        List<GoalOuterClass.Goal> messages = new ArrayList<>(goals.size());
+        for (Goal goal : goals) {
+            messages.add(goal.associated());
+        }
+        return messages;
     }
 
     private @Nullable Camp capture;
     private int timeOwned = 0;
+    private final @Nonnull double[] force = new double[2];
+    private @Nullable Grid<Seeker>.Query magnets;
+    private @Nullable GoalOuterClass.Goal message; // Last built message, reused while nothing changed
 
     /**
      * Constructs a new instance of the Goal class.
@@ -53,7 +57,6 @@ public class Goal extends Physical<Goal.Properties> {
      */
     public Goal(@Nonnull Game game, @Nonnull Properties properties) {
         super(game, properties);
-        setFill(Color.WHITE);
         getGame().getGoals().add(this);
     }
 
@@ -68,27 +71,36 @@ public class Goal extends Physical<Goal.Properties> {
         private final double scoringTime;
     }
 
-    @Override
-    public void update() {
-        super.update();
-        adopt();
-    }
-
+    /**
+     * Sums up the magnetic forces of all seekers. Only seekers with an active magnet that are closer than the cutoff
+     * of the magnetic force are visited. The goal uses its own query of the magnet grid, so all goals can accelerate
+     * at the same time.
+     */
     @Override
     public void accelerate() {
-        Point2D force = Point2D.ZERO;
-        for (Seeker seeker : List.copyOf(getGame().getSeekers())) {
-            force = force.add(seeker.getMagneticForce(getPosition()));
+        final Grid<Seeker> grid = getGame().getMagnetGrid();
+        if (magnets == null)
+            magnets = grid.newQuery();
+        final int count = magnets.query(getX(), getY());
+        final int[] candidates = magnets.getCandidates();
+        double forceX = 0;
+        double forceY = 0;
+        for (int i = 0; i < count; i++) {
+            if (grid.getPhysical(candidates[i]).getMagneticForce(getX(), getY(), force)) {
+                forceX += force[0];
+                forceY += force[1];
+            }
         }
-        setAcceleration(force);
+        setAcceleration(forceX, forceY);
     }
 
     /**
-     * Adopts the Goal object to a camp and checks for scoring.
+     * Adopts the Goal object to a camp and checks for scoring. Called by the game after all contacts are solved, so
+     * the goal is adopted at its final position of the tick.
      */
-    private void adopt() {
+    void adopt() {
         for (Camp camp : getGame().getCamps()) {
-            if (camp.contains(getPosition())) {
+            if (camp.contains(getX(), getY())) {
                 if (this.capture == camp) {
                     setTimeOwned(getTimeOwned() + 1);
                     if (timeOwned >= properties.scoringTime) {
@@ -110,18 +122,18 @@ public class Goal extends Physical<Goal.Properties> {
      */
     private void score(Player player) {
         player.putUp();
-        new GoalAnimation(getGame());
+        if (getGame().getOnGoalScored() != null)
+            getGame().getOnGoalScored().accept(this);
         reset();
     }
 
     /**
-     * Resets the state of the Goal object.
+     * Resets the state of the Goal object and places it at a random position.
      */
-    private void reset() {
+    void reset() {
         setPosition(getGame().getGameMap().getRandomPosition());
         capture = null;
         setTimeOwned(0);
-        setFill(Color.WHITE);
     }
 
     /**
@@ -138,60 +150,32 @@ public class Goal extends Physical<Goal.Properties> {
      */
     public void setTimeOwned(int timeOwned) {
         this.timeOwned = timeOwned;
-        if (timeOwned == 0) {
-            setFill(Color.WHITE);
-        } else {
-            final Camp checked = this.capture;
-            if (checked != null) {
-                Color color = checked.getPlayer().getColor();
-                setFill(Color.color(1 + (color.getRed() - 1) * timeOwned / properties.scoringTime,
-                        1 + (color.getGreen() - 1) * timeOwned / properties.scoringTime,
-                        1 + (color.getBlue() - 1) * timeOwned / properties.scoringTime));
-            }
-        }
     }
 
-    @Override
-    public GoalOuterClass.Goal associated() {
-        return GoalOuterClass.Goal.newBuilder().setSuper((PhysicalOuterClass.Physical) super.associated())
-                .setCampId((capture != null) ? capture.getIdentifier() : "").setTimeOwned(timeOwned).build();
+    /**
+     * @return the camp that currently captures this goal, or null if the goal is not inside a camp
+     */
+    @Nullable
+    public Camp getCapture() {
+        return capture;
     }
 
     /**
-     * The scoring animation for goals.
-     *
-     * @author karlz
+     * @return the time a camp must own this goal to score
      */
-    public class GoalAnimation extends Animation {
-
-        private static final double ANIMATION_RANGE = 50.0;
-        private final Circle wave = new Circle(0);
-
-        /**
-         * Creates a new scoring animation.
-         *
-         * @param game the game
-         */
-        public GoalAnimation(Game game) {
-            super(game);
-            getChildren().add(wave);
-            setLayoutX(getPosition().getX());
-            setLayoutY(getPosition().getY());
-            Color color = capture != null ? capture.getPlayer().getColor() : Color.WHITE;
-            wave.setFill(Color.color(color.getRed(), color.getGreen(), color.getBlue(), 0.25));
-            wave.setStroke(color);
-            wave.setStrokeWidth(2);
-        }
+    public double getScoringTime() {
+        return properties.scoringTime;
+    }
 
-        @Override
-        public void update() {
-            var next = wave.getRadius() + 0.75;
-            if (next < ANIMATION_RANGE) {
-                wave.setRadius(next);
-                wave.setStrokeWidth(1 + next / ANIMATION_RANGE);
-            } else {
-                destroy();
-            }
-        }
+    @Override
+    public GoalOuterClass.Goal associated() {
+        final PhysicalOuterClass.Physical physical = (PhysicalOuterClass.Physical) super.associated();
+        final String campId = (capture != null) ? capture.getIdentifier() : "";
+        final GoalOuterClass.Goal cached = message;
+        if (cached != null && cached.getSuper() == physical && cached.getTimeOwned() == timeOwned
+                && cached.getCampId().equals(campId))
+            return cached;
+        message = GoalOuterClass.Goal.newBuilder().setSuper(physical).setCampId(campId).setTimeOwned(timeOwned).build();
+        return message;
     }
 }
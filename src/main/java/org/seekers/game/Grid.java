@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Uniform grid that is used as broadphase for the collision detection and as cell list for the magnetic forces. The
+ * grid wraps at the edges of the map, so it also finds neighbors on the other side of a torus. The cells are at least
+ * as large as the range of the grid, which is the largest possible interaction distance. A query therefore only has to
+ * look at a single cell and its eight neighbors.
+ *
+ * <p>Every cell is a linked list of world slots. Physical objects update their cell whenever their position changes,
+ * so the grid is always consistent with the world and a query never allocates. Every {@link Query} has its own buffer
+ * for the candidates, so multiple threads can query the grid at once as long as nobody modifies it.
+ *
+ * @param <T> the type of the physical objects inside the grid
+ * @author karlz
+ */
+public class Grid<T extends Physical<?>> {
+
+    private static final int NONE = -1;
+
+    private final @Nonnull World world;
+    private final double width;
+    private final double height;
+
+    private double range;
+    private int columns = 1;
+    private int rows = 1;
+    private double cellWidth;
+    private double cellHeight;
+
+    private int[] heads = {NONE};
+    private int[] cells = new int[0];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private Object[] physicals = new Object[0];
+    private final @Nonnull Query query = new Query();
+
+    /**
+     * Creates a new grid for a map with the given size. The range grows with the largest collision distance of all
+     * inserted objects.
+     *
+     * @param world  the world that stores the positions
+     * @param width  the width of the map
+     * @param height the height of the map
+     */
+    public Grid(@Nonnull World world, double width, double height) {
+        this(world, width, height, 0);
+    }
+
+    /**
+     * Creates a new grid for a map with the given size and a minimum range.
+     *
+     * @param world  the world that stores the positions
+     * @param width  the width of the map
+     * @param height the height of the map
+     * @param range  the minimum size of a cell
+     */
+    public Grid(@Nonnull World world, double width, double height, double range) {
+        this.world = world;
+        this.width = width;
+        this.height = height;
+        this.cellWidth = width;
+        this.cellHeight = height;
+        if (range > 0) {
+            this.range = range;
+            resize();
+        }
+    }
+
+    /**
+     * Inserts a physical object into the grid. If the object is larger than the range of the grid, the cells are
+     * resized. Inserting an object that is already inside the grid only updates its cell.
+     *
+     * @param physical the physical object
+     */
+    public void insert(@Nonnull T physical) {
+        final int slot = physical.getSlot();
+        if (contains(slot)) {
+            update(slot);
+            return;
+        }
+        if (slot >= physicals.length) {
+            int capacity = Math.max(slot + 1, physicals.length * 2);
+            physicals = Arrays.copyOf(physicals, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+        }
+        physicals[slot] = physical;
+        cells[slot] = NONE;
+        if (2 * world.radius[slot] > range) {
+            range = 2 * world.radius[slot];
+            resize();
+        } else {
+            link(slot, cellOf(slot));
+        }
+    }
+
+    /**
+     * @param slot the slot of the physical object
+     * @return true if the physical object of the slot is inside the grid
+     */
+    public boolean contains(int slot) {
+        return slot < physicals.length && physicals[slot] != null;
+    }
+
+    /**
+     * Removes the physical object of a slot from the grid.
+     *
+     * @param slot the slot of the physical object
+     */
+    public void remove(int slot) {
+        if (contains(slot)) {
+            unlink(slot);
+            physicals[slot] = null;
+        }
+    }
+
+    /**
+     * Moves the physical object of a slot into the cell of its current position.
+     *
+     * @param slot the slot of the physical object
+     */
+    public void update(int slot) {
+        if (contains(slot)) {
+            final int cell = cellOf(slot);
+            if (cells[slot] != cell) {
+                unlink(slot);
+                link(slot, cell);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the cells of all physical objects from the current positions of the world.
+     */
+    public void rebuild() {
+        Arrays.fill(heads, NONE);
+        for (int slot = 0; slot < physicals.length; slot++) {
+            if (physicals[slot] != null) {
+                cells[slot] = NONE;
+                link(slot, cellOf(slot));
+            }
+        }
+    }
+
+    /**
+     * Collects all physical objects that are in the cell of the given slot or in one of its eight neighbors. The
+     * result is stored in {@link #getCandidates()} and stays valid until the next query.
+     *
+     * @param slot the slot of the physical object
+     * @return the number of candidates, the slot itself is not included
+     */
+    public int query(int slot) {
+        return query.query(slot);
+    }
+
+    /**
+     * Collects all physical objects that are in the cell of the given position or in one of its eight neighbors. This
+     * includes all objects that are closer to the position than the range of the grid. The result is stored in
+     * {@link #getCandidates()} and stays valid until the next query.
+     *
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @return the number of candidates
+     */
+    public int query(double x, double y) {
+        return query.query(x, y);
+    }
+
+    /**
+     * @return the slots that were found by the last query
+     */
+    @Nonnull
+    public int[] getCandidates() {
+        return query.getCandidates();
+    }
+
+    /**
+     * Creates a new query with its own candidate buffer. Use a separate query for every thread that reads the grid.
+     *
+     * @return a new query
+     */
+    @Nonnull
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * A query collects the candidates of a cell and its eight neighbors into its own buffer.
+     */
+    public class Query {
+        private int[] candidates = new int[16];
+
+        private Query() {
+        }
+
+        /**
+         * @param slot the slot of the physical object
+         * @return the number of candidates, the slot itself is not included
+         * @see Grid#query(int)
+         */
+        public int query(int slot) {
+            return collect(cells[slot], slot);
+        }
+
+        /**
+         * @param x the x coordinate of the position
+         * @param y the y coordinate of the position
+         * @return the number of candidates
+         * @see Grid#query(double, double)
+         */
+        public int query(double x, double y) {
+            return collect(cellOf(x, y), NONE);
+        }
+
+        /**
+         * @return the slots that were found by the last query
+         */
+        @Nonnull
+        public int[] getCandidates() {
+            return candidates;
+        }
+
+        private int collect(int cell, int excluded) {
+            int count = 0;
+            final int column = cell % columns;
+            final int row = cell / columns;
+            final int spanX = Math.min(columns, 3);
+            final int spanY = Math.min(rows, 3);
+            final int firstX = (columns < 3) ? 0 : column - 1;
+            final int firstY = (rows < 3) ? 0 : row - 1;
+            for (int y = 0; y < spanY; y++) {
+                final int offset = Math.floorMod(firstY + y, rows) * columns;
+                for (int x = 0; x < spanX; x++) {
+                    for (int other = heads[offset + Math.floorMod(firstX + x, columns)]; other != NONE;
+                         other = next[other]) {
+                        if (other != excluded) {
+                            if (count == candidates.length) {
+                                candidates = Arrays.copyOf(candidates, count * 2);
+                            }
+                            candidates[count++] = other;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @param slot the slot of the physical object
+     * @return the physical object of the slot
+     */
+    @SuppressWarnings("unchecked")
+    public T getPhysical(int slot) {
+        return (T) physicals[slot];
+    }
+
+    private void resize() {
+        columns = Math.max(1, (int) (width / range));
+        rows = Math.max(1, (int) (height / range));
+        cellWidth = width / columns;
+        cellHeight = height / rows;
+        heads = new int[columns * rows];
+        rebuild();
+    }
+
+    private int cellOf(int slot) {
+        return cellOf(world.positionX[slot], world.positionY[slot]);
+    }
+
+    private int cellOf(double x, double y) {
+        final int column = Math.floorMod((int) Math.floor(x / cellWidth), columns);
+        final int row = Math.floorMod((int) Math.floor(y / cellHeight), rows);
+        return row * columns + column;
+    }
+
+    private void link(int slot, int cell) {
+        final int head = heads[cell];
+        cells[slot] = cell;
+        previous[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            previous[head] = slot;
+        }
+        heads[cell] = slot;
+    }
+
+    private void unlink(int slot) {
+        final int cell = cells[slot];
+        if (cell == NONE)
+            return;
+        if (previous[slot] != NONE) {
+            next[previous[slot]] = next[slot];
+        } else {
+            heads[cell] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            previous[next[slot]] = previous[slot];
+        }
+        cells[slot] = NONE;
+    }
+}
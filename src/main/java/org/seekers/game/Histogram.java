@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values with power-of-two buckets. Recording a value only increments a few atomic
+ * counters, it never allocates and never blocks, so it is cheap enough for every tick and every call. The percentiles
+ * are upper bounds: the real percentile lies between half of the returned value and the returned value.
+ *
+ * @author karlz
+ */
+public class Histogram {
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final @Nonnull String unit;
+    private final double scale;
+    private final @Nonnull AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final @Nonnull AtomicLong count = new AtomicLong();
+    private final @Nonnull AtomicLong sum = new AtomicLong();
+    private final @Nonnull AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates a new histogram.
+     *
+     * @param unit  the unit of the values in the {@link #toString() description}
+     * @param scale the number of recorded values per unit
+     */
+    public Histogram(@Nonnull String unit, double scale) {
+        this.unit = unit;
+        this.scale = scale;
+    }
+
+    /**
+     * @return a new histogram of durations in nanoseconds, described in milliseconds
+     */
+    @Nonnull
+    public static Histogram ofNanos() {
+        return new Histogram("ms", 1e6);
+    }
+
+    /**
+     * @return a new histogram of counts
+     */
+    @Nonnull
+    public static Histogram ofCounts() {
+        return new Histogram("", 1);
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero. May be called from any thread.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Another thread recorded a new maximum
+        }
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, or 0 if there are none
+     */
+    public double getMean() {
+        final long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @return the largest recorded value
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of a percentile.
+     *
+     * @param quantile the quantile between 0 and 1, for example 0.99
+     * @return the upper bound of the bucket that contains the percentile, at most the largest recorded value
+     */
+    public long getPercentile(double quantile) {
+        final long rank = (long) Math.ceil(quantile * count.get());
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                final long bound = i == 0 ? 0 : i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(bound, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.3f%s p50<=%.3f%s p99<=%.3f%s max=%.3f%s", getCount(),
+                getMean() / scale, unit, getPercentile(0.5) / scale, unit, getPercentile(0.99) / scale, unit,
+                getMax() / scale, unit);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An integrator moves all physical objects of a world at once. For every slot, it applies the friction and the thrust
+ * scaled acceleration to the velocity, advances the position by the velocity and wraps the position at the edges of
+ * the map, like the {@link TorusMap} does.
+ *
+ * <p>All implementations must produce bit-identical results, so that a deterministic game does not depend on the
+ * integrator that was available.
+ *
+ * @author karlz
+ */
+public interface Integrator {
+
+    /**
+     * The system property that selects the integrator. The value {@code scalar} disables the vector integrator.
+     */
+    String PROPERTY = "seekers.integrator";
+
+    /**
+     * Integrates the velocities and positions of all slots of the world.
+     *
+     * @param world  the world
+     * @param width  the width of the map
+     * @param height the height of the map
+     */
+    void integrate(@Nonnull World world, double width, double height);
+
+    /**
+     * Creates the fastest available integrator. The vector integrator is only available if it was compiled on a JDK
+     * with the Vector API and the module {@code jdk.incubator.vector} was added at runtime. Otherwise, the scalar
+     * integrator is used.
+     *
+     * @return a new integrator
+     */
+    @Nonnull
+    static Integrator create() {
+        final Logger logger = LoggerFactory.getLogger(Integrator.class);
+        if (!"scalar".equals(System.getProperty(PROPERTY))) {
+            try {
+                Integrator integrator = (Integrator) Class.forName("org.seekers.game.VectorIntegrator")
+                        .getConstructor().newInstance();
+                logger.info("Use vector integrator");
+                return integrator;
+            } catch (ReflectiveOperationException | LinkageError ex) {
+                logger.debug("Vector integrator is not available, use scalar integrator: {}", ex.toString());
+            }
+        }
+        return new ScalarIntegrator();
+    }
+}
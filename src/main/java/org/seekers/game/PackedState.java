@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import com.google.protobuf.BytesValue;
+import com.google.protobuf.UnsafeByteOperations;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Encodes the state of a game into a packed little-endian buffer. The buffer holds fixed-width records instead of
+ * nested messages, so it is cheap to build on the server and can be read by clients without a protobuf parser. Ids
+ * are the dense integer ids of the entities, a missing id is {@code -1}.
+ *
+ * <p>The buffer starts with a header, followed by the records of all players, camps, goals and seekers, in this
+ * order:
+ * <ul>
+ *     <li>Header, {@value #HEADER} bytes: {@code int32} version, {@code int32} number of players, camps, goals and
+ *     seekers, {@code float64} passed playtime</li>
+ *     <li>Player, {@value #PLAYER} bytes: {@code int32} id, camp id and score</li>
+ *     <li>Camp, {@value #CAMP} bytes: {@code int32} id and player id, {@code float64} x and y</li>
+ *     <li>Goal, {@value #GOAL} bytes: {@code int32} id and id of the capturing camp, {@code float64} x, y, velocity x
+ *     and velocity y, {@code int32} time owned and flags</li>
+ *     <li>Seeker, {@value #SEEKER} bytes: {@code int32} id and player id, {@code float64} x, y, velocity x, velocity y,
+ *     target x, target y and magnet, {@code int32} disable counter and flags</li>
+ * </ul>
+ *
+ * @author karlz
+ */
+public final class PackedState {
+
+    /**
+     * The version of the layout, it is the first field of the header.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER = 5 * Integer.BYTES + Double.BYTES;
+    /**
+     * Size of a player record in bytes.
+     */
+    public static final int PLAYER = 3 * Integer.BYTES;
+    /**
+     * Size of a camp record in bytes.
+     */
+    public static final int CAMP = 2 * Integer.BYTES + 2 * Double.BYTES;
+    /**
+     * Size of a goal record in bytes.
+     */
+    public static final int GOAL = 4 * Integer.BYTES + 4 * Double.BYTES;
+    /**
+     * Size of a seeker record in bytes.
+     */
+    public static final int SEEKER = 4 * Integer.BYTES + 7 * Double.BYTES;
+
+    /**
+     * Flag of a goal that is captured by a camp.
+     */
+    public static final int CAPTURED = 1;
+    /**
+     * Flag of a seeker that is disabled.
+     */
+    public static final int DISABLED = 1;
+    /**
+     * Flag of a seeker whose magnet is switched on.
+     */
+    public static final int MAGNETIC = 2;
+
+    private PackedState() {
+    }
+
+    /**
+     * Encodes the current state of the game. Must only be called by the game loop.
+     *
+     * @param game the game
+     * @return the packed state
+     */
+    @Nonnull
+    static BytesValue encode(@Nonnull Game game) {
+        final List<Player> players = game.getPlayers();
+        final List<Camp> camps = game.getCamps();
+        final List<Goal> goals = game.getGoals();
+        final List<Seeker> seekers = game.getSeekers();
+        final World world = game.getWorld();
+        final byte[] bytes = new byte[HEADER + players.size() * PLAYER + camps.size() * CAMP
+                + goals.size() * GOAL + seekers.size() * SEEKER];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(VERSION).putInt(players.size()).putInt(camps.size()).putInt(goals.size())
+                .putInt(seekers.size()).putDouble(game.getPassedPlaytime());
+        for (int i = 0; i < players.size(); i++) {
+            final Player player = players.get(i);
+            final Camp camp = player.getCamp();
+            buffer.putInt(player.getId()).putInt(camp != null ? camp.getId() : -1).putInt(player.getScore());
+        }
+        for (int i = 0; i < camps.size(); i++) {
+            final Camp camp = camps.get(i);
+            buffer.putInt(camp.getId()).putInt(camp.getPlayer().getId())
+                    .putDouble(camp.getPosition().getX()).putDouble(camp.getPosition().getY());
+        }
+        for (int i = 0; i < goals.size(); i++) {
+            final Goal goal = goals.get(i);
+            final Camp capture = goal.getCapture();
+            final int slot = goal.getSlot();
+            buffer.putInt(goal.getId()).putInt(capture != null ? capture.getId() : -1)
+                    .putDouble(world.positionX[slot]).putDouble(world.positionY[slot])
+                    .putDouble(world.velocityX[slot]).putDouble(world.velocityY[slot])
+                    .putInt(goal.getTimeOwned()).putInt(capture != null ? CAPTURED : 0);
+        }
+        for (int i = 0; i < seekers.size(); i++) {
+            final Seeker seeker = seekers.get(i);
+            final int slot = seeker.getSlot();
+            final int flags = (seeker.isSeekerDisabled() ? DISABLED : 0) | (seeker.getMagnet() != 0 ? MAGNETIC : 0);
+            buffer.putInt(seeker.getId()).putInt(seeker.getPlayer().getId())
+                    .putDouble(world.positionX[slot]).putDouble(world.positionY[slot])
+                    .putDouble(world.velocityX[slot]).putDouble(world.velocityY[slot])
+                    .putDouble(seeker.getTargetX()).putDouble(seeker.getTargetY()).putDouble(seeker.getMagnet())
+                    .putInt(seeker.getDisabledCounter()).putInt(flags);
+        }
+        return BytesValue.newBuilder().setValue(UnsafeByteOperations.unsafeWrap(bytes)).build();
+    }
+}
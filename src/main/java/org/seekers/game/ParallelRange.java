@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A fork-join task that applies an action to every index of a range. The range is split in halves until it is not
+ * larger than the threshold.
+ *
+ * @author karlz
+ */
+class ParallelRange extends RecursiveAction {
+
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final @Nonnull IntConsumer action;
+
+    /**
+     * @param from      the first index
+     * @param to        the index after the last index
+     * @param threshold the largest range that is not split anymore
+     * @param action    the action for every index
+     */
+    ParallelRange(int from, int to, int threshold, @Nonnull IntConsumer action) {
+        this.from = from;
+        this.to = to;
+        this.threshold = Math.max(1, threshold);
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+        } else {
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ParallelRange(from, middle, threshold, action),
+                    new ParallelRange(middle, to, threshold, action));
+        }
+    }
+}
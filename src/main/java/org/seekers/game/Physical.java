@@ -19,22 +19,35 @@ package org.seekers.game;
 
 import com.google.protobuf.Message;
 import javafx.geometry.Point2D;
-import javafx.scene.shape.Circle;
 import org.ini4j.Ini;
 import org.seekers.grpc.Corresponding;
 import org.seekers.grpc.game.PhysicalOuterClass;
+import org.seekers.grpc.game.Vector2DOuterClass;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
-import java.util.List;
 
-public abstract class Physical<P extends Physical.Properties> extends Circle implements Entity,
-        Corresponding.ExtendableCorresponding {
+/**
+ * Base class for all physical objects. A physical object has a position, a velocity and an acceleration and can
+ * collide with other physical objects. The physical state is not stored in the object itself, but in a slot of the
+ * {@link World} of the game.
+ *
+ * @param <P> the type of the properties
+ * @author karlz
+ */
+public abstract class Physical<P extends Physical.Properties>
+        implements Entity, Registry.Indexed, Corresponding.ExtendableCorresponding {
 
     private final @Nonnull Game game;
-    private @Nonnull Point2D acceleration = Point2D.ZERO;
-    private @Nonnull Point2D velocity = Point2D.ZERO;
-    private @Nonnull Point2D position = Point2D.ZERO;
+    private final @Nonnull World world;
+    private final @Nonnull Grid<Physical<?>> grid;
+    private final int slot;
+    private int index = -1; // Index in the registry of the game
+    private final @Nonnull double[] difference = new double[2];
+    private int id;
+    private @Nonnull String identifier = "";
+    private @Nullable PhysicalOuterClass.Physical message; // Last built message, reused while nothing changed
 
     protected final @Nonnull P properties;
 
@@ -45,11 +58,33 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      */
     protected Physical(@Nonnull Game game, @Nonnull P properties) {
         this.game = game;
+        this.world = game.getWorld();
         this.properties = properties;
+        this.slot = world.allocate(properties.mass, properties.radius, properties.friction);
+        this.grid = game.getGrid();
+
+        grid.insert(this);
+        getGame().getPhysicals().add(this);
+        identify();
+    }
+
+    /**
+     * Assigns the next id of the game to this object.
+     */
+    void identify() {
+        id = game.identify(this);
+        identifier = Integer.toString(id);
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
 
-        setRadius(properties.radius);
-        getGame().getFront().getChildren().add(this);
-        getGame().getEntities().add(this);
+    @Nonnull
+    @Override
+    public String getIdentifier() {
+        return identifier;
     }
 
     public static class Properties {
@@ -65,68 +100,87 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
         }
     }
 
+    /**
+     * Accelerates the Physical object and stores its current thrust in the world. The velocity and position of all
+     * physical objects are integrated afterward at once by the {@link Integrator} of the game.
+     *
+     * <p>The update may run in parallel to the updates of other physical objects. It must only read the state of other
+     * objects and only write the state of its own slot. All other changes are applied in {@link #commit()}.
+     */
     @OverridingMethodsMustInvokeSuper
     @Override
     public void update() {
         accelerate();
-        velocity();
-        displacement();
-        checks();
+        world.thrust[slot] = getThrust();
     }
 
     public abstract void accelerate();
 
-    public void velocity() {
-        setVelocity(getVelocity().multiply(1 - properties.friction));
-        setVelocity(getVelocity().add(getAcceleration().multiply(getThrust())));
+    /**
+     * Applies the changes of the last update that affect other objects. Called one object after another, after all
+     * physical objects were updated.
+     */
+    @OverridingMethodsMustInvokeSuper
+    public void commit() {
     }
 
+    /**
+     * Called after the integrator has moved all physical objects. Normalizes the position on the map and moves the
+     * object into the cell of its new position.
+     */
+    @OverridingMethodsMustInvokeSuper
     public void displacement() {
-        setPosition(getPosition().add(getVelocity()));
         getGame().getGameMap().normPosition(this);
     }
 
     /**
-     * Performs collision checks with other Physical objects.
+     * Called once for every contact with another Physical object, before the collision is resolved. The contact is
+     * only reported to the object with the lower slot, so implementations must handle both sides of the contact.
+     *
+     * @param another The Physical object that is in contact with this object.
      */
-    private void checks() {
-        final List<Entity> entities = getGame().getEntities();
-        for (Entity entity : entities) {
-            if (entity == this || !(entity instanceof Physical))
-                continue;
-            Physical<?> physical = (Physical<?>) entity;
-            double min = properties.radius + physical.properties.radius;
-            double dist = getGame().getGameMap().getDistance(position, physical.position);
-            if (min > dist) {
-                collision(physical, min);
-            }
-        }
+    protected void contact(@Nonnull Physical<?> another) {
     }
 
     /**
-     * Handles a collision with another Physical object.
+     * Resolves a collision with another Physical object. Exchanges the impulses of both objects and moves them apart.
      *
      * @param another     The Physical object with which a collision occurred.
      * @param minDistance The minimum distance required for a collision to occur.
      */
-    @OverridingMethodsMustInvokeSuper
     public void collision(@Nonnull Physical<?> another, double minDistance) {
-        Point2D distance = getGame().getGameMap().getDifference(getPosition(), another.getPosition());
+        final int other = another.slot;
+        getGame().getGameMap().getDifference(world.positionX[slot], world.positionY[slot], world.positionX[other],
+                world.positionY[other], difference);
+        double dx = difference[0];
+        double dy = difference[1];
 
-        Point2D deltaR = distance.normalize();
-        Point2D deltaV = another.getVelocity().subtract(getVelocity());
+        double magnitude = Math.sqrt(dx * dx + dy * dy);
+        double rx = (magnitude == 0) ? 0 : dx / magnitude;
+        double ry = (magnitude == 0) ? 0 : dy / magnitude;
+        double vx = world.velocityX[other] - world.velocityX[slot];
+        double vy = world.velocityY[other] - world.velocityY[slot];
 
-        double dualV = deltaV.getX() * deltaR.getX() + deltaV.getY() * deltaR.getY();
-        double dualM = 2 / (properties.mass + another.properties.mass);
+        double dualV = vx * rx + vy * ry;
+        double dualM = 2 / (world.mass[slot] + world.mass[other]);
 
         if (dualV < 0) {
-            setVelocity(getVelocity().add(deltaR.multiply(another.properties.mass * dualM * dualV)));
-            another.setVelocity(another.getVelocity().subtract(deltaR.multiply(properties.mass * dualM * dualV)));
+            double impulse = world.mass[other] * dualM * dualV;
+            world.velocityX[slot] += rx * impulse;
+            world.velocityY[slot] += ry * impulse;
+            impulse = world.mass[slot] * dualM * dualV;
+            world.velocityX[other] -= rx * impulse;
+            world.velocityY[other] -= ry * impulse;
         }
-        double ddn = distance.getX() * deltaR.getX() + distance.getY() * deltaR.getY();
+        double ddn = dx * rx + dy * ry;
         if (ddn < minDistance) {
-            setPosition(getPosition().add(deltaR.multiply(ddn - minDistance)));
-            another.setPosition(another.getPosition().subtract(deltaR.multiply(ddn - minDistance)));
+            double correction = ddn - minDistance;
+            world.positionX[slot] += rx * correction;
+            world.positionY[slot] += ry * correction;
+            world.positionX[other] -= rx * correction;
+            world.positionY[other] -= ry * correction;
+            moved();
+            another.moved();
         }
     }
 
@@ -140,6 +194,31 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
         return game;
     }
 
+    /**
+     * @return the world that stores the physical state
+     */
+    @Nonnull
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @return the index of the slot in the world
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
     /**
      * Retrieves the position of the Physical object.
      *
@@ -147,7 +226,7 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      */
     @Nonnull
     public Point2D getPosition() {
-        return position;
+        return new Point2D(world.positionX[slot], world.positionY[slot]);
     }
 
     /**
@@ -156,9 +235,41 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      * @param position The new position vector.
      */
     public void setPosition(@Nonnull Point2D position) {
-        this.position = position;
-        setCenterX(position.getX());
-        setCenterY(position.getY());
+        setPosition(position.getX(), position.getY());
+    }
+
+    /**
+     * Sets the position of the Physical object in place.
+     *
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void setPosition(double x, double y) {
+        world.positionX[slot] = x;
+        world.positionY[slot] = y;
+        moved();
+    }
+
+    /**
+     * Called after the position of the Physical object was changed. Moves the object into its new cell of the grid.
+     */
+    @OverridingMethodsMustInvokeSuper
+    protected void moved() {
+        grid.update(slot);
+    }
+
+    /**
+     * @return the x coordinate of the position
+     */
+    public double getX() {
+        return world.positionX[slot];
+    }
+
+    /**
+     * @return the y coordinate of the position
+     */
+    public double getY() {
+        return world.positionY[slot];
     }
 
     /**
@@ -168,7 +279,7 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      */
     @Nonnull
     public Point2D getVelocity() {
-        return velocity;
+        return new Point2D(world.velocityX[slot], world.velocityY[slot]);
     }
 
     /**
@@ -177,7 +288,8 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      * @param velocity The new velocity vector.
      */
     public void setVelocity(@Nonnull Point2D velocity) {
-        this.velocity = velocity;
+        world.velocityX[slot] = velocity.getX();
+        world.velocityY[slot] = velocity.getY();
     }
 
     /**
@@ -187,7 +299,7 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      */
     @Nonnull
     public Point2D getAcceleration() {
-        return acceleration;
+        return new Point2D(world.accelerationX[slot], world.accelerationY[slot]);
     }
 
     /**
@@ -196,18 +308,54 @@ public abstract class Physical<P extends Physical.Properties> extends Circle imp
      * @param acceleration The new acceleration vector.
      */
     public void setAcceleration(@Nonnull Point2D acceleration) {
-        this.acceleration = acceleration;
+        setAcceleration(acceleration.getX(), acceleration.getY());
+    }
+
+    /**
+     * Sets the acceleration of the Physical object in place.
+     *
+     * @param x the new acceleration in x direction
+     * @param y the new acceleration in y direction
+     */
+    public void setAcceleration(double x, double y) {
+        world.accelerationX[slot] = x;
+        world.accelerationY[slot] = y;
     }
 
     public double getThrust() {
         return properties.thrust;
     }
 
+    /**
+     * @return the radius of the Physical object
+     */
+    public double getRadius() {
+        return world.radius[slot];
+    }
+
+    /**
+     * Returns the message of this object. The last message is kept, and it is returned again as long as the state
+     * did not change, so resting objects do not build any message. Unchanged vectors of a changed object are reused
+     * as well.
+     *
+     * @return the message of this object
+     */
     @Override
     public Message associated() {
-        return PhysicalOuterClass.Physical.newBuilder().setId(getIdentifier())
-                .setAcceleration(TorusMap.toMessage(acceleration)).setPosition(TorusMap.toMessage(position))
-                .setVelocity(TorusMap.toMessage(velocity)).build();
+        final PhysicalOuterClass.Physical cached = message;
+        final boolean present = cached != null;
+        final Vector2DOuterClass.Vector2D acceleration = TorusMap.toMessage(present ? cached.getAcceleration() : null,
+                world.accelerationX[slot], world.accelerationY[slot]);
+        final Vector2DOuterClass.Vector2D position = TorusMap.toMessage(present ? cached.getPosition() : null,
+                world.positionX[slot], world.positionY[slot]);
+        final Vector2DOuterClass.Vector2D velocity = TorusMap.toMessage(present ? cached.getVelocity() : null,
+                world.velocityX[slot], world.velocityY[slot]);
+        if (present && cached.getAcceleration() == acceleration && cached.getPosition() == position
+                && cached.getVelocity() == velocity && cached.getId().equals(identifier))
+            return cached;
+        message = PhysicalOuterClass.Physical.newBuilder().setId(identifier).setAcceleration(acceleration)
+                .setPosition(position).setVelocity(velocity).build();
+        return message;
     }
 
 }
@@ -17,42 +17,51 @@
 
 package org.seekers.game;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.google.protobuf.BytesValue;
 import io.grpc.stub.StreamObserver;
-import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import org.seekers.Launcher;
 import org.seekers.grpc.Corresponding;
 import org.seekers.grpc.game.PlayerOuterClass;
+import org.seekers.grpc.service.Command;
 import org.seekers.grpc.service.CommandResponse;
 
 /**
  * The Player class represents a player in the game.
  * 
  * @author karlz
-game.getFront().getChildren().add(this);
  */
-public class Player extends Label implements Entity, Corresponding<PlayerOuterClass.Player> {
-
-	private static final @Nonnull Random rand = new Random();
+public class Player implements Entity, Registry.Indexed, Corresponding<PlayerOuterClass.Player> {
 
 	private final @Nonnull Game game;
-	private final @Nonnull Map<String, Seeker> seekers = new LinkedHashMap<>();
+	private final @Nonnull List<Seeker> seekers = new ArrayList<>();
+	private final @Nonnull List<String> seekerIds = new ArrayList<>();
+	private final int id;
+	private final @Nonnull String identifier;
+	private int index = -1; // Index in the registry of the game
 
 	private @Nullable Camp camp;
 	private @Nonnull Color color;
 	private @Nonnull String name;
 	private int score;
+	private @Nullable PlayerOuterClass.Player message; // Last built message, reused while nothing changed
 
 	private @CheckForNull StreamObserver<CommandResponse> observer;
+	private @CheckForNull StreamObserver<BytesValue> packedObserver;
+	private @CheckForNull StreamObserver<CommandResponse> session;
+	private boolean waiting;
+	private volatile boolean posted;
+	private long responded; // Time of the last response, or 0 if the Player has answered it
+	private final @Nonnull Histogram latency = Histogram.ofNanos();
+	private final @Nonnull Histogram turnaround = Histogram.ofNanos();
 
 	/**
 	 * Constructs a new instance of the Player class.
@@ -62,47 +71,118 @@ public class Player extends Label implements Entity, Corresponding<PlayerOuterCl
 	public Player(@Nonnull Game game) {
 		this.game = game;
 		this.name = "Player " + hashCode();
+		Random rand = game.getRandom();
 		this.color = new Color((rand.nextDouble() + 1) / 3, (rand.nextDouble() + 1) / 3, (rand.nextDouble() + 1) / 3,
 				1.0);
-		setFont(Font.loadFont(Launcher.class.getResourceAsStream("PixelFont.otf"), 24.0));
-		setTextFill(color);
-		getGame().getEntities().add(this);
-		getGame().getInfo().getChildren().add(this);
 		getGame().getPlayers().add(this);
+		this.id = game.identify(this);
+		this.identifier = Integer.toString(id);
+	}
+
+	/**
+	 * Posts a command into the mailbox of one of the Seekers of the Player. May be called from any thread.
+	 *
+	 * @param seeker  the seeker of the Player
+	 * @param command the command for the seeker
+	 */
+	public void post(@Nonnull Seeker seeker, @Nonnull Command command) {
+		seeker.post(command);
+		posted = true;
+	}
+
+	/**
+	 * Applies the commands in the mailboxes of all Seekers, if any command was posted since the last drain. Must only
+	 * be called by the game loop.
+	 *
+	 * @return the number of applied commands
+	 */
+	int drain() {
+		int applied = 0;
+		if (posted) {
+			posted = false;
+			for (Seeker seeker : seekers) {
+				if (seeker.drain())
+					applied++;
+			}
+		}
+		return applied;
 	}
 
 	@Override
 	public void update() {
+		if (observer != null || packedObserver != null || session != null) {
+			responded = System.nanoTime();
+			latency.record(responded - getGame().getTickStart());
+		}
 		if (observer != null) {
-			observer.onNext(getGame().getCommandResponse().build());
+			observer.onNext(getGame().publishCommandResponse());
 			observer.onCompleted();
 			observer = null;
 		}
+		if (packedObserver != null) {
+			packedObserver.onNext(getGame().publishPackedState());
+			packedObserver.onCompleted();
+			packedObserver = null;
+		}
+		if (session != null) {
+			session.onNext(getGame().publishCommandResponse());
+		}
+		waiting = false;
 	}
 
-	private void updateText() {
-		setText(String.format("%4d %s", getScore(), getName()));
+	/**
+	 * Adds a Seeker to the Player. Must only be called by the constructor of the Seeker.
+	 *
+	 * @param seeker the new Seeker of the Player
+	 */
+	void addSeeker(@Nonnull Seeker seeker) {
+		seekers.add(seeker);
+		seekerIds.add(seeker.getIdentifier());
 	}
 
 	/**
-	 * Gets the map of Seekers associated with the Player.
+	 * Gets the list of Seekers associated with the Player.
 	 *
-	 * @return The map of Seekers associated with the Player.
+	 * @return The list of Seekers associated with the Player.
 	 */
 	@Nonnull
-	public Map<String, Seeker> getSeekers() {
-		return seekers;
+	public List<Seeker> getSeekers() {
+		return Collections.unmodifiableList(seekers);
 	}
 
-	@Nullable
-	private String id;
+	/**
+	 * Finds a Seeker of the Player by its id in constant time. May be called from any thread.
+	 *
+	 * @param identifier the id of the Seeker as string
+	 * @return the Seeker, or null if the id is not valid or the Seeker belongs to another Player
+	 */
+	@CheckForNull
+	public Seeker getSeeker(@Nonnull String identifier) {
+		Corresponding<?> entity = game.getIdentified(Corresponding.parseIdentifier(identifier));
+		if (entity instanceof Seeker && ((Seeker) entity).getPlayer() == this)
+			return (Seeker) entity;
+		return null;
+	}
+
+	@Override
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public void setIndex(int index) {
+		this.index = index;
+	}
 
 	@Nonnull
 	@Override
 	public String getIdentifier() {
-		if (id == null)
-			id = Integer.toHexString(hashCode());
-		return id;
+		return identifier;
 	}
 
 	/**
@@ -151,7 +231,6 @@ public class Player extends Label implements Entity, Corresponding<PlayerOuterCl
 	 */
 	public void setName(@Nonnull String name) {
 		this.name = name;
-		updateText();
 	}
 
 	/**
@@ -172,14 +251,6 @@ public class Player extends Label implements Entity, Corresponding<PlayerOuterCl
 	public void setColor(@Nonnull Color color) {
 		this.color = new Color(Math.max(0.25, color.getRed()), Math.max(0.25, color.getBlue()), Math.max(0.25,
 							color.getGreen()), 1.0);
-		for (Seeker seeker : seekers.values()) {
-			seeker.setColor(this.color);
-		}
-		setTextFill(this.color);
-
-		if (camp != null) {
-			camp.setStroke(this.color);
-		}
 	}
 
 	/**
@@ -196,17 +267,90 @@ public class Player extends Label implements Entity, Corresponding<PlayerOuterCl
 	 */
 	public void putUp() {
 		score++;
-		updateText();
 	}
 
 	public void setObserver(@Nonnull StreamObserver<CommandResponse> observer) {
 		this.observer = observer;
+		markWaiting();
+	}
+
+	/**
+	 * Sets the observer of a single packed command. It receives the {@link PackedState packed state} of the next tick
+	 * and is completed afterwards.
+	 *
+	 * @param packedObserver the observer
+	 */
+	public void setPackedObserver(@Nonnull StreamObserver<BytesValue> packedObserver) {
+		this.packedObserver = packedObserver;
+		markWaiting();
+	}
+
+	/**
+	 * Sets the observer of a streaming session. Unlike the observer of a single command, it receives the response of
+	 * every tick and is never completed by the Player.
+	 *
+	 * @param session the observer of the session, or null to end the session
+	 */
+	public void setSession(@Nullable StreamObserver<CommandResponse> session) {
+		this.session = session;
+	}
+
+	/**
+	 * @return the observer of the streaming session, or null if there is no session
+	 */
+	@CheckForNull
+	public StreamObserver<CommandResponse> getSession() {
+		return session;
+	}
+
+	/**
+	 * Marks the Player as waiting for the next tick. Streaming sessions call this for every command they receive.
+	 */
+	public void markWaiting() {
+		if (responded != 0) {
+			turnaround.record(System.nanoTime() - responded);
+			responded = 0;
+		}
+		this.waiting = true;
+	}
+
+	/**
+	 * @return the time from the start of a tick until the Player was sent its response in nanoseconds
+	 */
+	@Nonnull
+	public Histogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return the time from a response until the Player sent its next command in nanoseconds, the thinking time of the
+	 * client including the network round trip
+	 */
+	@Nonnull
+	public Histogram getTurnaround() {
+		return turnaround;
+	}
+
+	/**
+	 * Checks if the Player waits for the next tick. A Player waits after it sent a command and until it received the
+	 * response of the next tick.
+	 *
+	 * @return true if the Player waits for the next tick, false otherwise
+	 */
+	public boolean isWaiting() {
+		return waiting;
 	}
 
 	@Override
 	public PlayerOuterClass.Player associated() {
-		return PlayerOuterClass.Player.newBuilder().setId(getIdentifier()).addAllSeekerIds(seekers.keySet())
-				.setCampId(camp != null ? camp.getIdentifier() : "").setScore(score).build();
+		final String campId = camp != null ? camp.getIdentifier() : "";
+		final PlayerOuterClass.Player cached = message;
+		if (cached != null && cached.getScore() == score && cached.getSeekerIdsCount() == seekerIds.size()
+				&& cached.getCampId().equals(campId))
+			return cached;
+		message = PlayerOuterClass.Player.newBuilder().setId(identifier).addAllSeekerIds(seekerIds).setCampId(campId)
+				.setScore(score).build();
+		return message;
 	}
 
 }
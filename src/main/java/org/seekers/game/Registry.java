@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A registry stores all entities of a single kind densely packed in an array. Entities are removed in constant time by
+ * moving the last entity into the gap, so the order of the registry is the insertion order until the first removal.
+ *
+ * <p>While the registry is {@link #lock() locked}, for example during a tick, all structural changes are queued and
+ * applied in their original order once the registry is unlocked. Iterating the registry by index therefore never
+ * needs a copy and does not allocate, even if entities add or remove other entities during the iteration.
+ *
+ * <p>Every entity stores its own {@link Indexed#getIndex() index} in the registry, so lookups neither hash nor box.
+ * An entity can therefore be part of a single registry only.
+ *
+ * @param <T> the type of the entities
+ * @author karlz
+ */
+public class Registry<T extends Registry.Indexed> extends AbstractList<T> implements RandomAccess {
+
+    private final @Nonnull List<T> pending = new ArrayList<>();
+    private final @Nonnull List<Boolean> additions = new ArrayList<>();
+
+    private Object[] entities = new Object[16];
+    private int size = 0;
+    private boolean locked = false;
+
+    /**
+     * Adds an entity to the end of the registry. If the registry is locked, the entity is added once it is unlocked.
+     *
+     * @param entity the entity
+     * @return true if the entity was added or queued, false if it is already part of the registry
+     */
+    @Override
+    public boolean add(@Nonnull T entity) {
+        if (locked) {
+            pending.add(entity);
+            additions.add(true);
+            return true;
+        }
+        if (contains(entity))
+            return false;
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+        }
+        entity.setIndex(size);
+        entities[size++] = entity;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes an entity from the registry and moves the last entity into its place. If the registry is locked, the
+     * entity is removed once it is unlocked.
+     *
+     * @param entity the entity
+     * @return true if the entity was removed or queued, false if it is not part of the registry
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object entity) {
+        if (locked) {
+            pending.add((T) entity);
+            additions.add(false);
+            return true;
+        }
+        final int index = indexOf(entity);
+        if (index < 0)
+            return false;
+        ((T) entity).setIndex(-1);
+        final int last = --size;
+        if (index != last) {
+            T moved = (T) entities[last];
+            entities[index] = moved;
+            moved.setIndex(index);
+        }
+        entities[last] = null;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes all entities. Pending changes are discarded.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ((T) entities[i]).setIndex(-1);
+        }
+        Arrays.fill(entities, 0, size, null);
+        pending.clear();
+        additions.clear();
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return (T) entities[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object entity) {
+        return indexOf(entity) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object entity) {
+        if (!(entity instanceof Indexed))
+            return -1;
+        final int index = ((Indexed) entity).getIndex();
+        return index >= 0 && index < size && entities[index] == entity ? index : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object entity) {
+        return indexOf(entity);
+    }
+
+    /**
+     * Locks the registry. All structural changes are queued until the registry is unlocked.
+     */
+    public void lock() {
+        locked = true;
+    }
+
+    /**
+     * Unlocks the registry and applies all queued changes in the order they were made.
+     */
+    public void unlock() {
+        locked = false;
+        for (int i = 0; i < pending.size(); i++) {
+            if (additions.get(i)) {
+                add(pending.get(i));
+            } else {
+                remove(pending.get(i));
+            }
+        }
+        pending.clear();
+        additions.clear();
+    }
+
+    /**
+     * @return true if the registry is locked
+     */
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * An entity that stores its index in a registry.
+     */
+    public interface Indexed {
+        /**
+         * @return the index in the registry, or -1 if this entity is not part of a registry
+         */
+        int getIndex();
+
+        /**
+         * Sets the index in the registry. Only called by the registry.
+         *
+         * @param index the new index, or -1 if this entity was removed
+         */
+        void setIndex(int index);
+    }
+}
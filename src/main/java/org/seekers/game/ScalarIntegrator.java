@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The scalar integrator moves one slot after another. It is the fallback if the Vector API is not available and is used
+ * for the remaining slots of the vector integrator.
+ *
+ * @author karlz
+ */
+public class ScalarIntegrator implements Integrator {
+
+    @Override
+    public void integrate(@Nonnull World world, double width, double height) {
+        integrate(world, width, height, 0, world.getSize());
+    }
+
+    /**
+     * Integrates the slots in the range from {@code from} inclusive to {@code to} exclusive.
+     *
+     * @param world  the world
+     * @param width  the width of the map
+     * @param height the height of the map
+     * @param from   the first slot
+     * @param to     the slot after the last slot
+     */
+    static void integrate(@Nonnull World world, double width, double height, int from, int to) {
+        final double[] positionX = world.positionX;
+        final double[] positionY = world.positionY;
+        final double[] velocityX = world.velocityX;
+        final double[] velocityY = world.velocityY;
+        final double[] accelerationX = world.accelerationX;
+        final double[] accelerationY = world.accelerationY;
+        final double[] friction = world.friction;
+        final double[] thrust = world.thrust;
+        for (int i = from; i < to; i++) {
+            final double damping = 1 - friction[i];
+            velocityX[i] = velocityX[i] * damping + accelerationX[i] * thrust[i];
+            velocityY[i] = velocityY[i] * damping + accelerationY[i] * thrust[i];
+            positionX[i] = wrap(positionX[i] + velocityX[i], width);
+            positionY[i] = wrap(positionY[i] + velocityY[i], height);
+        }
+    }
+
+    private static double wrap(double v, double max) {
+        if (v < 0) return v + max;
+        if (v > max) return v - max;
+        return v;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Game loop that shares the threads of a scheduler with other loops. Unlike the {@link SimulationLoop}, it does not
+ * own a thread, so a server can tick many games with a few threads. Every tick and every command is a short task of the
+ * scheduler, and the tasks of one loop never run at the same time, so the game is still only altered by one thread at
+ * once.
+ *
+ * <p>The ticks follow the same rules as the ones of the {@link SimulationLoop}: they have absolute deadlines, missed
+ * ticks are caught up unless the loop falls behind by more than {@value #MAX_LAG} ticks, and in
+ * {@link Game.Properties#isLockstep() lockstep} mode the next tick starts as soon as the game is
+ * {@link Game#isReady() ready}.
+ *
+ * @author karlz
+ */
+public class ScheduledLoop implements GameLoop {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledLoop.class);
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    private static final long MAX_LAG = 5;
+
+    private final @Nonnull String name;
+    private final @Nonnull ScheduledExecutorService scheduler;
+    private final @Nonnull Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final @Nonnull AtomicBoolean draining = new AtomicBoolean();
+
+    // Only accessed by the tasks of this loop
+    private @Nullable Game game;
+    private @Nullable ScheduledFuture<?> next;
+    private long sequence = 0;
+    private long period;
+    private boolean lockstep;
+    private long deadline;
+    private long window;
+    private int ticks;
+    private long skipped;
+
+    private volatile boolean stopped = false;
+    private volatile double ticksPerSecond = 0;
+
+    /**
+     * Creates a new loop. The loop does not tick until a game is {@link #start(Game) started}.
+     *
+     * @param name      the name of the loop in the log
+     * @param scheduler the scheduler that runs the ticks and commands, it may be shared with other loops
+     */
+    public ScheduledLoop(@Nonnull String name, @Nonnull ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void start(@Nonnull Game game) {
+        execute(() -> {
+            Game.Properties properties = game.getGameProperties();
+            double duration = properties.isLockstep() ? properties.getLockstepDeadline()
+                    : properties.getTickDuration() / properties.getSpeed();
+            this.period = Math.max(1L, Math.round(duration * 1e6));
+            this.lockstep = properties.isLockstep();
+            this.game = game;
+            this.deadline = System.nanoTime() + period;
+            this.window = System.nanoTime();
+            this.ticks = 0;
+            this.skipped = 0;
+            schedule();
+        });
+    }
+
+    /**
+     * Schedules the next tick at the current deadline. A tick that was scheduled before is cancelled.
+     */
+    private void schedule() {
+        if (next != null)
+            next.cancel(false);
+        final long scheduled = ++sequence;
+        try {
+            next = scheduler.schedule(() -> submit(() -> {
+                if (scheduled == sequence)
+                    tick();
+            }), deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Scheduler of room {} is shut down", name);
+        }
+    }
+
+    private void tick() {
+        final Game running = game;
+        if (running == null || stopped)
+            return;
+        long now = System.nanoTime();
+        try {
+            running.tick();
+        } catch (RuntimeException ex) {
+            logger.error("Room {} failed to tick", name, ex); // Like the simulation loop, the next tick is scheduled
+        }
+        ticks++;
+        if (running.getGameState() != GameState.RUNNING && game == running) {
+            game = null;
+        }
+        if (lockstep) {
+            deadline = System.nanoTime() + period;
+        } else {
+            deadline += period;
+            if (now - deadline > MAX_LAG * period) {
+                skipped += (now - deadline) / period;
+                deadline = now + period;
+            }
+        }
+        report(now);
+        if (game == running) {
+            schedule();
+        } else if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    private void report(long now) {
+        if (now - window >= REPORT_INTERVAL) {
+            ticksPerSecond = ticks * 1e9 / (now - window);
+            logger.info("Room {} runs at {} ticks per second, {} is {}", name,
+                    String.format("%.1f", ticksPerSecond), lockstep ? "minimum" : "target",
+                    String.format("%.1f", 1e9 / period));
+            if (skipped > 0) {
+                logger.warn("Room {} fell behind and skipped {} ticks", name, skipped);
+            }
+            window = now;
+            ticks = 0;
+            skipped = 0;
+        }
+    }
+
+    /**
+     * Executes all queued commands. In lockstep mode, the game is ticked right after the commands if it is ready.
+     */
+    private void drain() {
+        try {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException ex) {
+                    logger.error("Room {} failed", name, ex);
+                }
+            }
+            final Game running = game;
+            if (lockstep && running != null && running.isReady()) {
+                tick();
+            }
+        } finally {
+            draining.set(false);
+        }
+        if (!commands.isEmpty()) {
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                draining.set(false);
+                logger.debug("Scheduler of room {} is shut down", name);
+            }
+        }
+    }
+
+    private void submit(@Nonnull Runnable command) {
+        commands.add(command);
+        dispatch();
+    }
+
+    /**
+     * Executes the command between two ticks on one of the threads of the scheduler.
+     *
+     * @param command the command
+     */
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        if (stopped) {
+            logger.warn("Room {} is stopped, command is ignored", name);
+            return;
+        }
+        submit(command);
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        submit(() -> {
+            game = null;
+            if (next != null) {
+                next.cancel(false);
+                next = null;
+            }
+        });
+    }
+
+    @Override
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
@@ -18,17 +18,18 @@
 package org.seekers.game;
 
 import javafx.geometry.Point2D;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import org.ini4j.Ini;
 import org.seekers.grpc.game.PhysicalOuterClass;
 import org.seekers.grpc.game.SeekerOuterClass;
+import org.seekers.grpc.game.Vector2DOuterClass;
+import org.seekers.grpc.service.Command;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The Seeker class represents a seeker in the game.
@@ -38,19 +39,25 @@ import java.util.List;
 public class Seeker extends Physical<Seeker.Properties> {
 
     public static Iterable<? extends SeekerOuterClass.Seeker> transform(@Nonnull Collection<? extends Seeker> seekers) {
-        return seekers.stream().map(Seeker::associated).collect(Collectors.toList());
+        List<SeekerOuterClass.Seeker> messages = new ArrayList<>(seekers.size());
+        for (Seeker seeker : seekers) {
+            messages.add(seeker.associated());
+        }
+        return messages;
     }
 
     private final @Nonnull Player player;
-    private final @Nonnull SeekerAnimation animation;
 
-    private @Nonnull Point2D target = getPosition();
-    private @Nonnull Color activated = Color.WHITE;
-    private @Nonnull Color disabled = Color.WHITE;
+    private double targetX = 0.0;
+    private double targetY = 0.0;
+    private final @Nonnull double[] direction = new double[2];
 
     private double magnet = 0.0;
     private int disabledCounter = 0;
 
+    private final @Nonnull AtomicReference<Command> mailbox = new AtomicReference<>();
+    private @Nullable SeekerOuterClass.Seeker message; // Last built message, reused while nothing changed
+
     /**
      * Constructs a new instance of the Seeker class.
      *
@@ -59,9 +66,7 @@ public class Seeker extends Physical<Seeker.Properties> {
     public Seeker(@Nonnull Player player, Properties properties) {
         super(player.getGame(), properties);
         this.player = player;
-        this.animation = new SeekerAnimation(getGame());
-        setColor(player.getColor());
-        player.getSeekers().put(getIdentifier(), this);
+        player.addSeeker(this);
         getGame().getSeekers().add(this);
     }
 
@@ -71,20 +76,23 @@ public class Seeker extends Physical<Seeker.Properties> {
         public Properties(Ini ini) {
             super(ini, SECTION);
             magnetSlowdown = ini.fetch(SECTION, "magnet-slowdown", double.class);
-            disabledTime = ini.fetch(SECTION, "disabled-time", int.class);
+            disabledTime = (int) Math.round(ini.fetch(SECTION, "disabled-time", double.class));
         }
 
         private final double magnetSlowdown;
         private final int disabledTime;
     }
 
+    /**
+     * Counts down the disabled time. Enables the magnet of the seeker again once the time is over.
+     */
     @Override
-    public void update() {
-        super.update();
+    public void commit() {
+        super.commit();
         if (isSeekerDisabled()) {
             disabledCounter = Math.max(disabledCounter - 1, 0);
             if (!isSeekerDisabled()) {
-                setFill(activated);
+                updateMagnetGrid();
             }
         }
     }
@@ -92,31 +100,48 @@ public class Seeker extends Physical<Seeker.Properties> {
     @Override
     public void accelerate() {
         if (!isSeekerDisabled()) {
-            setAcceleration(getGame().getGameMap().getDirection(getPosition(), getTarget()));
+            getGame().getGameMap().getDifference(getX(), getY(), targetX, targetY, direction);
+            double magnitude = Math.sqrt(direction[0] * direction[0] + direction[1] * direction[1]);
+            if (magnitude != 0) {
+                setAcceleration(direction[0] / magnitude, direction[1] / magnitude);
+            } else {
+                setAcceleration(0, 0);
+            }
         } else {
-            setAcceleration(Point2D.ZERO);
+            setAcceleration(0, 0);
         }
     }
 
+    /**
+     * Disables the seekers of a contact. The decision is made from the state of both seekers before the contact, so it
+     * does not depend on which seeker reports the contact:
+     * <ul>
+     *     <li>A seeker that hits a disabled seeker is disabled.</li>
+     *     <li>Otherwise, all seekers with an active magnet are disabled.</li>
+     *     <li>If no seeker has an active magnet, both are disabled.</li>
+     * </ul>
+     *
+     * @param another The Physical object that is in contact with this seeker.
+     */
     @Override
-    public void collision(@Nonnull Physical<?> another, double minDistance) {
+    protected void contact(@Nonnull Physical<?> another) {
         if (another instanceof Seeker) {
             Seeker collision = (Seeker) another;
-            if (collision.isSeekerDisabled()) {
-                disable();
-            } else if (magnet != 0) {
+            boolean disabled = isSeekerDisabled();
+            boolean collisionDisabled = collision.isSeekerDisabled();
+            if (disabled || collisionDisabled) {
                 disable();
+                collision.disable();
+            } else if (magnet != 0 || collision.magnet != 0) {
+                if (magnet != 0)
+                    disable();
                 if (collision.magnet != 0)
                     collision.disable();
-            } else if (collision.magnet != 0) {
-                collision.disable();
             } else {
                 disable();
                 collision.disable();
             }
         }
-
-        super.collision(another, minDistance);
     }
 
     /**
@@ -127,10 +152,39 @@ public class Seeker extends Physical<Seeker.Properties> {
      */
     @Nonnull
     public Point2D getMagneticForce(@Nonnull Point2D p) {
-        double r = getGame().getGameMap().getDistance(getPosition(), p) / getGame().getGameMap().getDiameter() * 10;
-        Point2D d = getGame().getGameMap().getDirection(getPosition(), p);
-        double s = (r < 1) ? Math.exp(1 / (Math.pow(r, 2) - 1)) : 0;
-        return (isSeekerDisabled()) ? Point2D.ZERO : d.multiply(-getMagnet() * s);
+        double[] buffer = new double[2];
+        return getMagneticForce(p.getX(), p.getY(), buffer) ? new Point2D(buffer[0], buffer[1]) : Point2D.ZERO;
+    }
+
+    /**
+     * Calculates the magnetic force between the Seeker and a given position without allocating. The force is zero if
+     * the magnet is off, the Seeker is disabled or the position is at least a tenth of the map diameter away, in that
+     * case the buffer is left untouched.
+     *
+     * @param x      the x coordinate of the position
+     * @param y      the y coordinate of the position
+     * @param buffer the buffer for the force, the x component is stored at index 0 and the y component at index 1
+     * @return true if the force is not zero and was written into the buffer
+     */
+    public boolean getMagneticForce(double x, double y, @Nonnull double[] buffer) {
+        if (magnet == 0 || isSeekerDisabled())
+            return false;
+        final GameMap map = getGame().getGameMap();
+        final double diameter = map.getDiameter();
+        final double squared = map.getSquaredDistance(getX(), getY(), x, y);
+        if (squared * 100 >= diameter * diameter)
+            return false;
+        double r = Math.sqrt(squared) / diameter * 10;
+        double s = Math.exp(1 / (r * r - 1));
+        map.getDifference(getX(), getY(), x, y, buffer);
+        double magnitude = Math.sqrt(buffer[0] * buffer[0] + buffer[1] * buffer[1]);
+        if (magnitude == 0) {
+            buffer[0] = buffer[1] = 0;
+        } else {
+            buffer[0] = buffer[0] / magnitude * (-magnet * s);
+            buffer[1] = buffer[1] / magnitude * (-magnet * s);
+        }
+        return true;
     }
 
     /**
@@ -170,7 +224,7 @@ public class Seeker extends Physical<Seeker.Properties> {
     public void setMagnet(double magnet) {
         if (!isSeekerDisabled()) {
             this.magnet = Math.max(Math.min(magnet, 1), -8);
-            animation.setVisible(magnet != 0);
+            updateMagnetGrid();
         }
     }
 
@@ -181,11 +235,34 @@ public class Seeker extends Physical<Seeker.Properties> {
         if (!isSeekerDisabled()) {
             disabledCounter = properties.disabledTime;
             setMagnet(0.0);
-            animation.setVisible(false);
-            setFill(disabled);
+            updateMagnetGrid();
+        }
+    }
+
+    /**
+     * Inserts the Seeker into the magnet grid of the game if its magnet is active, otherwise removes it.
+     */
+    private void updateMagnetGrid() {
+        if (magnet != 0 && !isSeekerDisabled()) {
+            getGame().getMagnetGrid().insert(this);
+        } else {
+            getGame().getMagnetGrid().remove(getSlot());
         }
     }
 
+    @Override
+    protected void moved() {
+        super.moved();
+        getGame().getMagnetGrid().update(getSlot());
+    }
+
+    /**
+     * @return the remaining ticks until the Seeker is enabled again
+     */
+    public int getDisabledCounter() {
+        return disabledCounter;
+    }
+
     /**
      * Checks if the Seeker is disabled.
      *
@@ -202,7 +279,21 @@ public class Seeker extends Physical<Seeker.Properties> {
      */
     @Nonnull
     public Point2D getTarget() {
-        return target;
+        return new Point2D(targetX, targetY);
+    }
+
+    /**
+     * @return the x coordinate of the target
+     */
+    public double getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * @return the y coordinate of the target
+     */
+    public double getTargetY() {
+        return targetY;
     }
 
     /**
@@ -211,89 +302,74 @@ public class Seeker extends Physical<Seeker.Properties> {
      * @param target The target position to set.
      */
     public void setTarget(@Nonnull Point2D target) {
-        this.target = target;
+        setTarget(target.getX(), target.getY());
     }
 
     /**
-     * Sets the color of the Seeker.
+     * Sets the target position of the Seeker in place.
      *
-     * @param color The color to set.
+     * @param x the x coordinate of the target
+     * @param y the y coordinate of the target
      */
-    public void setColor(final @Nonnull Color color) {
-        this.activated = color;
-        this.disabled = color.darker().darker();
-        setFill(color);
-        for (var indicator : animation.indicators)
-            indicator.setStroke(color);
+    public void setTarget(double x, double y) {
+        this.targetX = x;
+        this.targetY = y;
     }
 
-    @Override
-    public void setPosition(@Nonnull Point2D position) {
-        super.setPosition(position);
-        for (var indicator : animation.indicators) {
-            indicator.setCenterX(getPosition().getX());
-            indicator.setCenterY(getPosition().getY());
-        }
+    /**
+     * Posts a command into the mailbox of the Seeker. The mailbox only holds the latest command, an older command that
+     * was not applied yet is replaced. May be called from any thread.
+     *
+     * @param command the command
+     */
+    public void post(@Nonnull Command command) {
+        mailbox.set(command);
     }
 
-    @Override
-    public SeekerOuterClass.Seeker associated() {
-        return SeekerOuterClass.Seeker.newBuilder().setSuper((PhysicalOuterClass.Physical) super.associated())
-                .setPlayerId(player.getIdentifier()).setMagnet(magnet).setTarget(TorusMap.toMessage(target))
-                .setDisableCounter(disabledCounter).build();
+    /**
+     * Applies the command in the mailbox, if there is one, and empties the mailbox. Must only be called by the game
+     * loop. A command that leaves the target and the magnet unchanged is counted as a no-op in the
+     * {@link Game.Metrics metrics}.
+     *
+     * @return true if a command was applied
+     */
+    boolean drain() {
+        Command command = mailbox.getAndSet(null);
+        if (command == null)
+            return false;
+        final double x = targetX;
+        final double y = targetY;
+        final double m = magnet;
+        setTarget(command.getTarget().getX(), command.getTarget().getY());
+        setMagnet(command.getMagnet());
+        if (isTarget(x, y) && magnet == m)
+            getGame().getMetrics().countNoOp();
+        return true;
     }
 
-    public class SeekerAnimation extends Animation {
-
-        private final @Nonnull List<Circle> indicators = List.of(
-                new Circle(properties.radius + getAnimationRange() / 3),
-                new Circle(properties.radius + getAnimationRange() * 2 / 3) ,
-                new Circle(properties.radius + getAnimationRange())
-        );
-        private final @Nonnull List<Double> expansions = new ArrayList<>(List.of(
-                getAnimationRange() / 3, getAnimationRange() * 2 / 3, getAnimationRange()
-        ));
-
-        protected SeekerAnimation(@Nonnull Game game) {
-            super(game);
-            for (var indicator : indicators) {
-                indicator.setFill(Color.TRANSPARENT);
-                indicator.setStrokeWidth(2);
-                indicator.setStroke(player.getColor());
-                getChildren().add(indicator);
-            }
-            setVisible(false);
-        }
-
-        private int frameTime = 8;
-
-        @Override
-        public void update() {
-            frameTime--;
-            if (frameTime < 0) {
-                for (int i = 0; i < expansions.size(); i++) {
-                    var range = expansions.get(i) - Math.signum(getMagnet());
-                    if (range > getAnimationRange()) range -= getAnimationRange();
-                    if (range < 0) range += getAnimationRange();
-                    expansions.set(i, range);
-                    indicators.get(i).setRadius(range + properties.radius);
-                    frameTime = 8;
-                }
-            }
-        }
-
-        @Override
-        public void destroy() {
-            throw new UnsupportedOperationException();
-        }
+    /**
+     * Checks if the target of the Seeker is at the given position.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return true if the target equals the position
+     */
+    public boolean isTarget(double x, double y) {
+        return targetX == x && targetY == y;
+    }
 
-        /**
-         * Returns the animation range of the Seeker.
-         *
-         * @return The animation range of the Seeker.
-         */
-        public double getAnimationRange() {
-            return 26;
-        }
+    @Override
+    public SeekerOuterClass.Seeker associated() {
+        final PhysicalOuterClass.Physical physical = (PhysicalOuterClass.Physical) super.associated();
+        final SeekerOuterClass.Seeker cached = message;
+        final Vector2DOuterClass.Vector2D target =
+                TorusMap.toMessage(cached != null ? cached.getTarget() : null, targetX, targetY);
+        if (cached != null && cached.getSuper() == physical && cached.getTarget() == target
+                && cached.getMagnet() == magnet && cached.getDisableCounter() == disabledCounter
+                && cached.getPlayerId().equals(player.getIdentifier()))
+            return cached;
+        message = SeekerOuterClass.Seeker.newBuilder().setSuper(physical).setPlayerId(player.getIdentifier())
+                .setMagnet(magnet).setTarget(target).setDisableCounter(disabledCounter).build();
+        return message;
     }
 }
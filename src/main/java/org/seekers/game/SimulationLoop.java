@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game loop that runs the simulation on its own thread. The tick rate is defined by the tick duration and the speed of
+ * the game properties, so matches can be played faster than real time. The graphics, if there are any, only render
+ * the game and never tick it.
+ *
+ * <p>Every tick has an absolute deadline on the {@link System#nanoTime() nanosecond clock}, and the next deadline is
+ * computed from the previous one instead of the current time. Short delays, for example from a garbage collection,
+ * are therefore caught up and the loop does not drift. If the loop falls behind by more than {@value #MAX_LAG} ticks,
+ * the missed ticks are skipped. While the loop waits for the next deadline, it executes the commands of the clients.
+ *
+ * <p>In {@link Game.Properties#isLockstep() lockstep} mode, the loop does not wait for the deadline if the game is
+ * {@link Game#isReady() ready}: as soon as every player has sent its command, the next tick starts. The period is the
+ * lockstep deadline instead, so slow players can not stall the game, and it starts anew after every tick.
+ *
+ * <p>The achieved ticks per second and the skipped ticks are measured continuously and reported every ten seconds.
+ *
+ * @author karlz
+ */
+public class SimulationLoop implements GameLoop {
+    private static final Logger logger = LoggerFactory.getLogger(SimulationLoop.class);
+
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    private static final long MAX_LAG = 5;
+
+    private final @Nonnull BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    private final @Nonnull Thread thread = new Thread(this::run, "simulation");
+
+    private volatile @Nullable Game game;
+    private volatile long period;
+    private volatile boolean lockstep;
+    private volatile boolean stopped = false;
+    private volatile double ticksPerSecond = 0;
+
+    /**
+     * Creates and starts the simulation thread. The loop does not tick until a game is {@link #start(Game) started}.
+     */
+    public SimulationLoop() {
+        thread.start();
+    }
+
+    @Override
+    public void start(@Nonnull Game game) {
+        Game.Properties properties = game.getGameProperties();
+        double duration = properties.isLockstep() ? properties.getLockstepDeadline()
+                : properties.getTickDuration() / properties.getSpeed();
+        this.period = Math.max(1L, Math.round(duration * 1e6));
+        this.lockstep = properties.isLockstep();
+        this.game = game;
+        commands.add(() -> { }); // Wake up the loop
+    }
+
+    private void run() {
+        Game current = null;
+        long deadline = 0;
+        long window = System.nanoTime();
+        int ticks = 0;
+        long skipped = 0;
+        while (!stopped) {
+            try {
+                final Game running = game;
+                if (running == null) {
+                    current = null;
+                    drain(commands.poll(REPORT_INTERVAL, TimeUnit.NANOSECONDS));
+                } else {
+                    if (running != current) {
+                        current = running;
+                        deadline = System.nanoTime() + period;
+                    }
+                    long now = System.nanoTime();
+                    if (deadline - now > 0 && !(lockstep && running.isReady())) {
+                        drain(commands.poll(deadline - now, TimeUnit.NANOSECONDS));
+                        continue;
+                    }
+                    running.tick();
+                    ticks++;
+                    if (running.getGameState() != GameState.RUNNING && game == running) {
+                        game = null;
+                    }
+                    if (lockstep) {
+                        deadline = System.nanoTime() + period;
+                    } else {
+                        deadline += period;
+                        if (now - deadline > MAX_LAG * period) {
+                            skipped += (now - deadline) / period;
+                            deadline = now + period;
+                        }
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - window >= REPORT_INTERVAL) {
+                    ticksPerSecond = ticks * 1e9 / (now - window);
+                    if (ticks > 0) {
+                        logger.info("Simulation runs at {} ticks per second, {} is {}",
+                                String.format("%.1f", ticksPerSecond), lockstep ? "minimum" : "target",
+                                String.format("%.1f", 1e9 / period));
+                    }
+                    if (skipped > 0) {
+                        logger.warn("Simulation fell behind and skipped {} ticks", skipped);
+                    }
+                    window = now;
+                    ticks = 0;
+                    skipped = 0;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Simulation failed", ex);
+            }
+        }
+    }
+
+    private void drain(@Nullable Runnable command) {
+        while (command != null) {
+            command.run();
+            command = commands.poll();
+        }
+    }
+
+    /**
+     * Executes the command on the simulation thread between two ticks.
+     *
+     * @param command the command
+     */
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        if (stopped) {
+            logger.warn("Simulation is stopped, command is ignored");
+            return;
+        }
+        commands.add(command);
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        game = null;
+        commands.add(() -> { }); // Wake up the loop
+    }
+
+    /**
+     * @return the ticks per second that were achieved in the last report interval
+     */
+    @Override
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
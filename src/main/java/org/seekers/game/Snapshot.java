@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the visible state of a game at the end of a tick. Snapshots are taken on the thread that ticks
+ * the game and can be read from any other thread without holding the lock of the game, so a view never blocks the
+ * simulation. The entities are only referenced as keys, all values are copied.
+ *
+ * @author karlz
+ */
+public final class Snapshot {
+
+    private final long tick;
+    private final long time;
+    private final double width;
+    private final double height;
+    private final @Nonnull List<PlayerState> players;
+    private final @Nonnull List<CampState> camps;
+    private final @Nonnull List<GoalState> goals;
+    private final @Nonnull List<SeekerState> seekers;
+
+    Snapshot(@Nonnull Game game) {
+        this.tick = game.getPassedPlaytime();
+        this.time = System.nanoTime();
+        this.width = game.getGameProperties().getWidth();
+        this.height = game.getGameProperties().getHeight();
+        List<PlayerState> players = new ArrayList<>(game.getPlayers().size());
+        for (Player player : game.getPlayers()) {
+            players.add(new PlayerState(player));
+        }
+        List<CampState> camps = new ArrayList<>(game.getCamps().size());
+        for (Camp camp : game.getCamps()) {
+            camps.add(new CampState(camp));
+        }
+        List<GoalState> goals = new ArrayList<>(game.getGoals().size());
+        for (Goal goal : game.getGoals()) {
+            goals.add(new GoalState(goal));
+        }
+        List<SeekerState> seekers = new ArrayList<>(game.getSeekers().size());
+        for (Seeker seeker : game.getSeekers()) {
+            seekers.add(new SeekerState(seeker));
+        }
+        this.players = Collections.unmodifiableList(players);
+        this.camps = Collections.unmodifiableList(camps);
+        this.goals = Collections.unmodifiableList(goals);
+        this.seekers = Collections.unmodifiableList(seekers);
+    }
+
+    /**
+     * The state of a single entity. The entity itself must only be used to identify the state across snapshots.
+     */
+    public interface State {
+
+        /**
+         * @return the entity of this state
+         */
+        @Nonnull
+        Object getEntity();
+    }
+
+    /**
+     * The state of a player.
+     */
+    public static final class PlayerState implements State {
+        private final @Nonnull Player player;
+        private final @Nonnull String name;
+        private final @Nonnull Color color;
+        private final int score;
+
+        PlayerState(@Nonnull Player player) {
+            this.player = player;
+            this.name = player.getName();
+            this.color = player.getColor();
+            this.score = player.getScore();
+        }
+
+        @Nonnull
+        @Override
+        public Player getEntity() {
+            return player;
+        }
+
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        @Nonnull
+        public Color getColor() {
+            return color;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * The state of a camp.
+     */
+    public static final class CampState implements State {
+        private final @Nonnull Camp camp;
+        private final @Nonnull Point2D position;
+        private final @Nonnull Color color;
+        private final double width;
+        private final double height;
+
+        CampState(@Nonnull Camp camp) {
+            this.camp = camp;
+            this.position = camp.getPosition();
+            this.color = camp.getPlayer().getColor();
+            this.width = camp.getWidth();
+            this.height = camp.getHeight();
+        }
+
+        @Nonnull
+        @Override
+        public Camp getEntity() {
+            return camp;
+        }
+
+        @Nonnull
+        public Point2D getPosition() {
+            return position;
+        }
+
+        @Nonnull
+        public Color getColor() {
+            return color;
+        }
+
+        public double getWidth() {
+            return width;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+    }
+
+    /**
+     * The state of a goal.
+     */
+    public static final class GoalState implements State {
+        private final @Nonnull Goal goal;
+        private final double x;
+        private final double y;
+        private final double radius;
+        private final @Nullable Color capture;
+        private final double progress;
+
+        GoalState(@Nonnull Goal goal) {
+            this.goal = goal;
+            this.x = goal.getX();
+            this.y = goal.getY();
+            this.radius = goal.getRadius();
+            Camp camp = goal.getCapture();
+            this.capture = camp != null ? camp.getPlayer().getColor() : null;
+            this.progress = goal.getTimeOwned() / goal.getScoringTime();
+        }
+
+        @Nonnull
+        @Override
+        public Goal getEntity() {
+            return goal;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+
+        /**
+         * @return the color of the player that captures the goal, or null if the goal is not captured
+         */
+        @Nullable
+        public Color getCapture() {
+            return capture;
+        }
+
+        /**
+         * @return the progress of the capture, from zero to one
+         */
+        public double getProgress() {
+            return progress;
+        }
+    }
+
+    /**
+     * The state of a seeker.
+     */
+    public static final class SeekerState implements State {
+        private final @Nonnull Seeker seeker;
+        private final double x;
+        private final double y;
+        private final double radius;
+        private final @Nonnull Color color;
+        private final double magnet;
+        private final boolean disabled;
+
+        SeekerState(@Nonnull Seeker seeker) {
+            this.seeker = seeker;
+            this.x = seeker.getX();
+            this.y = seeker.getY();
+            this.radius = seeker.getRadius();
+            this.color = seeker.getPlayer().getColor();
+            this.magnet = seeker.getMagnet();
+            this.disabled = seeker.isSeekerDisabled();
+        }
+
+        @Nonnull
+        @Override
+        public Seeker getEntity() {
+            return seeker;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+
+        @Nonnull
+        public Color getColor() {
+            return color;
+        }
+
+        public double getMagnet() {
+            return magnet;
+        }
+
+        public boolean isDisabled() {
+            return disabled;
+        }
+    }
+
+    /**
+     * @return the passed playtime of the game when the snapshot was taken
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return the {@link System#nanoTime() time} when the snapshot was taken
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    @Nonnull
+    public List<PlayerState> getPlayers() {
+        return players;
+    }
+
+    @Nonnull
+    public List<CampState> getCamps() {
+        return camps;
+    }
+
+    @Nonnull
+    public List<GoalState> getGoals() {
+        return goals;
+    }
+
+    @Nonnull
+    public List<SeekerState> getSeekers() {
+        return seekers;
+    }
+}
@@ -18,7 +18,6 @@
 package org.seekers.game;
 
 import javafx.geometry.Point2D;
-import javafx.scene.layout.BorderPane;
 
 import javax.annotation.Nonnull;
 
@@ -27,7 +26,7 @@ public class StandardMode implements GameMode {
     @Override
     public Game createGame(Game.Properties gameProperties, Camp.Properties campProperties,
                            Seeker.Properties seekerProperties, Goal.Properties goalProperties) {
-        Game game = new Game(new BorderPane(), gameProperties, campProperties, seekerProperties, goalProperties);
+        Game game = new Game(gameProperties, campProperties, seekerProperties, goalProperties);
         game.setGameMap(createGameMap(game));
         for (int i = 0; i < game.getGameProperties().goals; i++)
             createGoal(game).setPosition(game.getGameMap().getRandomPosition());
@@ -36,7 +35,7 @@ public class StandardMode implements GameMode {
 
     @Override
     public GameMap createGameMap(@Nonnull Game game) {
-        return new TorusMap(game.getGameProperties().width, game.getGameProperties().height);
+        return new TorusMap(game.getGameProperties().width, game.getGameProperties().height, game.getRandom());
     }
 
     @Override
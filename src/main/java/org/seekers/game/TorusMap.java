@@ -21,6 +21,8 @@ import javafx.geometry.Point2D;
 import org.seekers.grpc.game.Vector2DOuterClass;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Random;
 
 /**
  * The TorusMap class provides utility methods for handling positions and
@@ -32,14 +34,47 @@ public class TorusMap implements GameMap {
 
 	private final double width;
 	private final double height;
+	private final double diameter;
+	private final @Nonnull Random random;
 
 	public TorusMap(double width, double height) {
-        this.width = width;
-        this.height = height;
-    }
+		this(width, height, new Random());
+	}
+
+	/**
+	 * Creates a new torus map that uses the given random source for all random positions.
+	 *
+	 * @param width  the width of the map
+	 * @param height the height of the map
+	 * @param random the random source
+	 */
+	public TorusMap(double width, double height, @Nonnull Random random) {
+		this.width = width;
+		this.height = height;
+		this.diameter = Math.hypot(width, height);
+		this.random = random;
+	}
 
 	static Vector2DOuterClass.Vector2D toMessage(Point2D vec) {
-		return Vector2DOuterClass.Vector2D.newBuilder().setX(vec.getX()).setY(vec.getY()).build();
+		return toMessage(vec.getX(), vec.getY());
+	}
+
+	static Vector2DOuterClass.Vector2D toMessage(double x, double y) {
+		return Vector2DOuterClass.Vector2D.newBuilder().setX(x).setY(y).build();
+	}
+
+	/**
+	 * Reuses the cached message if it still holds the vector, otherwise builds a new message.
+	 *
+	 * @param cached the last message of the vector, or null if there is none
+	 * @param x      the x component of the vector
+	 * @param y      the y component of the vector
+	 * @return the cached message if it is unchanged, otherwise a new message
+	 */
+	static Vector2DOuterClass.Vector2D toMessage(@Nullable Vector2DOuterClass.Vector2D cached, double x, double y) {
+		if (cached != null && cached.getX() == x && cached.getY() == y)
+			return cached;
+		return toMessage(x, y);
 	}
 
 	/**
@@ -50,9 +85,7 @@ public class TorusMap implements GameMap {
 	 */
 	@Override
 	public void normPosition(@Nonnull Physical<?> physical) {
-		Point2D p = physical.getPosition();
-
-		physical.setPosition(new Point2D(norm(p.getX(), 0, getWidth()), norm(p.getY(), 0, getHeight())));
+		physical.setPosition(norm(physical.getX(), 0, getWidth()), norm(physical.getY(), 0, getHeight()));
 	}
 
 	private static double norm(double v, double min, double max) {
@@ -75,8 +108,34 @@ public class TorusMap implements GameMap {
 	 */
 	@Override
 	public double getDistance(@Nonnull Point2D p0, @Nonnull Point2D p1) {
-		return new Point2D(distance(p0.getX(), p1.getX(), getWidth()), distance(p0.getY(), p1.getY(), getHeight()))
-				.magnitude();
+		return getDistance(p0.getX(), p0.getY(), p1.getX(), p1.getY());
+	}
+
+	@Override
+	public double getSquaredDistance(double x0, double y0, double x1, double y1) {
+		double dx = distance(x0, x1, width);
+		double dy = distance(y0, y1, height);
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Checks if two positions are closer than the given distance. Returns early if a single axis is already too far
+	 * apart, otherwise compares the squared distances without calculating a square root.
+	 *
+	 * @param x0       The x coordinate of the first position.
+	 * @param y0       The y coordinate of the first position.
+	 * @param x1       The x coordinate of the second position.
+	 * @param y1       The y coordinate of the second position.
+	 * @param distance The distance to compare with.
+	 * @return True if the torus distance is less than the given distance.
+	 */
+	@Override
+	public boolean isWithin(double x0, double y0, double x1, double y1, double distance) {
+		double dx = distance(x0, x1, width);
+		if (dx >= distance) return false;
+		double dy = distance(y0, y1, height);
+		if (dy >= distance) return false;
+		return dx * dx + dy * dy < distance * distance;
 	}
 
 	private static double difference(double p0, double p1, double d) {
@@ -98,6 +157,12 @@ public class TorusMap implements GameMap {
 				difference(p0.getY(), p1.getY(), getHeight()));
 	}
 
+	@Override
+	public void getDifference(double x0, double y0, double x1, double y1, @Nonnull double[] buffer) {
+		buffer[0] = difference(x0, x1, width);
+		buffer[1] = difference(y0, y1, height);
+	}
+
 	/**
 	 * Calculates the torus direction from one position to another.
 	 * 
@@ -119,7 +184,9 @@ public class TorusMap implements GameMap {
 	 */
 	@Nonnull
 	public Point2D getRandomPosition() {
-		return new Point2D(Math.random() * getWidth(), Math.random() * getHeight());
+		double x = random.nextDouble() * getWidth();
+		double y = random.nextDouble() * getHeight();
+		return new Point2D(x, y);
 	}
 
 	/**
@@ -129,7 +196,7 @@ public class TorusMap implements GameMap {
 	 */
 	@Override
 	public double getDiameter() {
-		return Math.hypot(getWidth(), getHeight());
+		return diameter;
 	}
 
 	/**
@@ -21,6 +21,7 @@ import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -29,7 +30,8 @@ import java.io.Serializable;
 import java.util.*;
 
 /**
- * Represents a Seekers Tournament.
+ * Represents a Seekers Tournament. A tournament can be played by multiple servers at once, all accesses to the matches
+ * and results must therefore be synchronized on the tournament.
  *
  * @author karlz
  */
@@ -55,7 +57,7 @@ public class Tournament implements Serializable {
 		}
 	}
 
-	public void save() throws IOException {
+	public synchronized void save() throws IOException {
 		File file = new File("results");
 		if (!file.exists() && !file.mkdir()) {
 			logger.error("Failed to create results folder");
@@ -65,6 +67,16 @@ public class Tournament implements Serializable {
 		}
     }
 
+	/**
+	 * Removes the next match from the list of open matches.
+	 *
+	 * @return the files of the next match, or null if no match is left
+	 */
+	@CheckForNull
+	public synchronized List<String> pollMatch() {
+		return matches.isEmpty() ? null : matches.remove(0);
+	}
+
 	@Nonnull
 	public List<List<String>> getMatches() {
 		return matches;
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import java.util.Arrays;
+
+/**
+ * The world stores the physical state of all physical objects of a game in packed primitive arrays. Every physical
+ * object owns a slot of the world and reads and writes its position, velocity and acceleration in place, so the
+ * integration of a tick does not create any temporary vectors. Released slots are reused by new physical objects.
+ *
+ * <p>The arrays are only accessed from the thread that owns the game. They may be replaced by larger arrays when a
+ * slot is allocated, so they must not be cached across allocations.
+ *
+ * @author karlz
+ */
+public class World {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    double[] positionX = new double[INITIAL_CAPACITY];
+    double[] positionY = new double[INITIAL_CAPACITY];
+    double[] velocityX = new double[INITIAL_CAPACITY];
+    double[] velocityY = new double[INITIAL_CAPACITY];
+    double[] accelerationX = new double[INITIAL_CAPACITY];
+    double[] accelerationY = new double[INITIAL_CAPACITY];
+    double[] mass = new double[INITIAL_CAPACITY];
+    double[] radius = new double[INITIAL_CAPACITY];
+    double[] friction = new double[INITIAL_CAPACITY];
+    double[] thrust = new double[INITIAL_CAPACITY];
+
+    private int[] released = new int[INITIAL_CAPACITY];
+    private int releasedCount = 0;
+    private int size = 0;
+
+    /**
+     * Allocates a new slot for a physical object. The state of the slot is reset to zero.
+     *
+     * @param mass     the mass of the physical object
+     * @param radius   the radius of the physical object
+     * @param friction the friction of the physical object
+     * @return the index of the allocated slot
+     */
+    public int allocate(double mass, double radius, double friction) {
+        final int slot;
+        if (releasedCount > 0) {
+            slot = released[--releasedCount];
+        } else {
+            if (size == positionX.length) {
+                grow(size * 2);
+            }
+            slot = size++;
+        }
+        clear(slot);
+        this.mass[slot] = mass;
+        this.radius[slot] = radius;
+        this.friction[slot] = friction;
+        return slot;
+    }
+
+    /**
+     * Releases the slot of a physical object, so it can be reused by another physical object.
+     *
+     * @param slot the index of the slot
+     */
+    public void release(int slot) {
+        if (releasedCount == released.length) {
+            released = Arrays.copyOf(released, released.length * 2);
+        }
+        clear(slot);
+        released[releasedCount++] = slot;
+    }
+
+    private void clear(int slot) {
+        positionX[slot] = positionY[slot] = 0;
+        velocityX[slot] = velocityY[slot] = 0;
+        accelerationX[slot] = accelerationY[slot] = 0;
+        thrust[slot] = 0;
+    }
+
+    private void grow(int capacity) {
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        friction = Arrays.copyOf(friction, capacity);
+        thrust = Arrays.copyOf(thrust, capacity);
+    }
+
+    /**
+     * @return the number of slots that were ever allocated, including released slots
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public double getPositionX(int slot) {
+        return positionX[slot];
+    }
+
+    public double getPositionY(int slot) {
+        return positionY[slot];
+    }
+
+    public double getVelocityX(int slot) {
+        return velocityX[slot];
+    }
+
+    public double getVelocityY(int slot) {
+        return velocityY[slot];
+    }
+
+    public double getAccelerationX(int slot) {
+        return accelerationX[slot];
+    }
+
+    public double getAccelerationY(int slot) {
+        return accelerationY[slot];
+    }
+
+    public double getMass(int slot) {
+        return mass[slot];
+    }
+
+    public double getRadius(int slot) {
+        return radius[slot];
+    }
+
+    public double getFriction(int slot) {
+        return friction[slot];
+    }
+
+    public double getThrust(int slot) {
+        return thrust[slot];
+    }
+}
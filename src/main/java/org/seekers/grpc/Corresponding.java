@@ -19,8 +19,9 @@ package org.seekers.grpc;
 
 import com.google.protobuf.Message;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * Every corresponding instance is associated with another object.
@@ -35,10 +36,34 @@ public interface Corresponding<T> {
     T associated();
 
     /**
-     * @return the id of the object, default hash code
+     * @return the dense id of the object, it is unique within the match and assigned once when the object joins it
      */
-    default String getIdentifier() {
-        return Integer.toHexString(this.hashCode());
+    int getId();
+
+    /**
+     * @return the id of the object as string, it is computed once together with the id
+     */
+    String getIdentifier();
+
+    /**
+     * Parses the string form of an id without throwing, so invalid ids of clients are cheap to reject. Only the exact
+     * {@link #getIdentifier() identifier} of an id is accepted, so leading zeros are rejected.
+     *
+     * @param identifier the id as string
+     * @return the id, or -1 if the string is not a valid id
+     */
+    static int parseIdentifier(String identifier) {
+        final int length = identifier.length();
+        if (length == 0 || length > 9 || (length > 1 && identifier.charAt(0) == '0'))
+            return -1;
+        int id = 0;
+        for (int i = 0; i < length; i++) {
+            char c = identifier.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            id = id * 10 + (c - '0');
+        }
+        return id;
     }
 
     /**
@@ -49,7 +74,11 @@ public interface Corresponding<T> {
      * @param <T> the type of the associated objects
      */
     static <T> Collection<T> transform(Collection<? extends Corresponding<T>> corresponding) {
-        return corresponding.stream().map(Corresponding::associated).collect(Collectors.toList());
+        List<T> associated = new ArrayList<>(corresponding.size());
+        for (Corresponding<T> object : corresponding) {
+            associated.add(object.associated());
+        }
+        return associated;
     }
 
     /**
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import org.seekers.grpc.game.GoalOuterClass.Goal;
+import org.seekers.grpc.game.PhysicalOuterClass.Physical;
+import org.seekers.grpc.game.SeekerOuterClass.Seeker;
+import org.seekers.grpc.service.CommandResponse;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Encodes the responses of a single client as deltas against the last response the client acknowledged. A sent
+ * response only becomes the base of the next delta once it was acknowledged, either explicitly or by the successful
+ * completion of its call. If its call fails, the next response is a keyframe. The encoder is called by the game loop
+ * and by the threads of the calls, so all methods are synchronized. A delta only
+ * contains the entities that changed. Players and camps are sent in full if they changed. Goals and seekers always
+ * contain their id, their scalar fields and the camp of a goal, but only the vectors and the player of a seeker if they
+ * changed. Entities are matched by their index, every structural change results in a keyframe with the full state.
+ *
+ * @author karlz
+ */
+final class DeltaEncoder {
+
+    private final int interval;
+
+    private @CheckForNull CommandResponse base; // Acknowledged by the client
+    private @CheckForNull CommandResponse pending; // Sent, but not acknowledged yet
+    private int sinceKeyframe = 0;
+
+    /**
+     * Creates a new encoder.
+     *
+     * @param interval the maximum number of deltas between two keyframes
+     */
+    DeltaEncoder(int interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Checks if the next response must be a keyframe.
+     *
+     * @param full the full response of the current tick
+     * @param ack  the passed playtime of the response the client acknowledged, or null if the acknowledgement is
+     *             implicit
+     * @return true if a keyframe must be sent
+     */
+    synchronized boolean isKeyframe(@Nonnull CommandResponse full, @Nullable Double ack) {
+        if (pending != null) {
+            if (ack == null)
+                return true; // The call of the last response did not complete yet, the client state is unknown
+            if (ack == pending.getPassedPlaytime())
+                base = pending;
+            pending = null;
+        }
+        return base == null || sinceKeyframe >= interval || full.getPassedPlaytime() < base.getPassedPlaytime()
+                || (ack != null && ack != base.getPassedPlaytime())
+                || full.getPlayersCount() != base.getPlayersCount() || full.getCampsCount() != base.getCampsCount()
+                || full.getGoalsCount() != base.getGoalsCount() || full.getSeekersCount() != base.getSeekersCount();
+    }
+
+    /**
+     * Encodes the response. The response becomes the new base of this encoder once it is
+     * {@link #acknowledge(CommandResponse) acknowledged}.
+     *
+     * @param full     the full response of the current tick
+     * @param keyframe true if the full response is sent
+     * @return the response for the client
+     */
+    @Nonnull
+    synchronized CommandResponse encode(@Nonnull CommandResponse full, boolean keyframe) {
+        CommandResponse previous = base;
+        pending = full;
+        if (keyframe || previous == null) {
+            sinceKeyframe = 0;
+            return full;
+        }
+        sinceKeyframe++;
+
+        CommandResponse.Builder delta = CommandResponse.newBuilder().setPassedPlaytime(full.getPassedPlaytime());
+        for (int i = 0; i < full.getPlayersCount(); i++) {
+            if (!full.getPlayers(i).equals(previous.getPlayers(i)))
+                delta.addPlayers(full.getPlayers(i));
+        }
+        for (int i = 0; i < full.getCampsCount(); i++) {
+            if (!full.getCamps(i).equals(previous.getCamps(i)))
+                delta.addCamps(full.getCamps(i));
+        }
+        for (int i = 0; i < full.getGoalsCount(); i++) {
+            Goal goal = full.getGoals(i);
+            Goal before = previous.getGoals(i);
+            if (!goal.equals(before)) {
+                delta.addGoals(Goal.newBuilder().setSuper(encode(goal.getSuper(), before.getSuper()))
+                        .setCampId(goal.getCampId()).setTimeOwned(goal.getTimeOwned()));
+            }
+        }
+        for (int i = 0; i < full.getSeekersCount(); i++) {
+            Seeker seeker = full.getSeekers(i);
+            Seeker before = previous.getSeekers(i);
+            if (!seeker.equals(before)) {
+                Seeker.Builder builder = Seeker.newBuilder().setSuper(encode(seeker.getSuper(), before.getSuper()))
+                        .setMagnet(seeker.getMagnet()).setDisableCounter(seeker.getDisableCounter());
+                if (!seeker.getPlayerId().equals(before.getPlayerId()))
+                    builder.setPlayerId(seeker.getPlayerId());
+                if (!seeker.getTarget().equals(before.getTarget()))
+                    builder.setTarget(seeker.getTarget());
+                delta.addSeekers(builder);
+            }
+        }
+        return delta.build();
+    }
+
+    /**
+     * Acknowledges a sent response, because its call completed successfully. It becomes the new base.
+     *
+     * @param full the full response that was encoded
+     */
+    synchronized void acknowledge(@Nonnull CommandResponse full) {
+        if (pending == full) {
+            base = full;
+            pending = null;
+        }
+    }
+
+    /**
+     * Discards a sent response, because its call failed. The client may or may not have received it, so the next
+     * response is a keyframe.
+     *
+     * @param full the full response that was encoded
+     */
+    synchronized void discard(@Nonnull CommandResponse full) {
+        if (pending == full) {
+            base = null;
+            pending = null;
+        }
+    }
+
+    @Nonnull
+    private static Physical encode(@Nonnull Physical physical, @Nonnull Physical before) {
+        Physical.Builder builder = Physical.newBuilder().setId(physical.getId());
+        if (!physical.getAcceleration().equals(before.getAcceleration()))
+            builder.setAcceleration(physical.getAcceleration());
+        if (!physical.getPosition().equals(before.getPosition()))
+            builder.setPosition(physical.getPosition());
+        if (!physical.getVelocity().equals(before.getVelocity()))
+            builder.setVelocity(physical.getVelocity());
+        return builder.build();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import org.seekers.grpc.service.CommandRequest;
+import org.seekers.grpc.service.CommandResponse;
+import org.seekers.grpc.service.SeekersGrpc;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Opt-in delta protocol next to the regular {@code command} call. The {@value #SERVICE_NAME} service has a single unary
+ * {@code Command} method with the same messages as {@code command}, but every response only contains what changed
+ * since the last response the client received. See {@link DeltaEncoder} for the format of a delta.
+ *
+ * <p>The server keeps the last response of every token. A response that was sent by a call that completed
+ * successfully is acknowledged implicitly; if the call failed, the client gets a keyframe. A client can also acknowledge
+ * explicitly by sending the passed playtime of the last applied response
+ * in the {@code seekers-ack} header; if it does not match, the client gets a keyframe. Keyframes contain the full state
+ * and are sent at least every {@value #KEYFRAME_INTERVAL} responses. Every response has the {@code seekers-keyframe}
+ * header, which is {@code true} for keyframes and {@code false} for deltas.
+ *
+ * @author karlz
+ */
+public final class DeltaService implements BindableService {
+
+    /**
+     * The full name of the delta service.
+     */
+    public static final String SERVICE_NAME = "seekers.service.SeekersDelta";
+
+    /**
+     * The maximum number of deltas between two keyframes.
+     */
+    public static final int KEYFRAME_INTERVAL = 100;
+
+    /**
+     * The request header with the passed playtime of the last applied response.
+     */
+    public static final Metadata.Key<String> ACK = Metadata.Key.of("seekers-ack", Metadata.ASCII_STRING_MARSHALLER);
+
+    /**
+     * The response header that marks keyframes.
+     */
+    public static final Metadata.Key<String> KEYFRAME =
+            Metadata.Key.of("seekers-keyframe", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final MethodDescriptor<CommandRequest, CommandResponse> COMMAND_METHOD =
+            SeekersGrpc.getCommandMethod().toBuilder()
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "Command"))
+                    .setSchemaDescriptor(null)
+                    .build();
+
+    private final @Nonnull BiConsumer<CommandRequest, StreamObserver<CommandResponse>> command;
+    private final @Nonnull Map<String, DeltaEncoder> encoders = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new delta service.
+     *
+     * @param command the handler of the regular {@code command} call
+     */
+    public DeltaService(@Nonnull BiConsumer<CommandRequest, StreamObserver<CommandResponse>> command) {
+        this.command = command;
+    }
+
+    /**
+     * @return the descriptor of the {@code Command} method of the delta service
+     */
+    @Nonnull
+    public static MethodDescriptor<CommandRequest, CommandResponse> getCommandMethod() {
+        return COMMAND_METHOD;
+    }
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(SERVICE_NAME).addMethod(COMMAND_METHOD, this::startCall).build();
+    }
+
+    /**
+     * Forgets the last responses of the clients with the tokens. Must be called if the tokens of the previous match
+     * become invalid.
+     *
+     * @param tokens the tokens of the clients
+     */
+    public void clear(@Nonnull Collection<String> tokens) {
+        encoders.keySet().removeAll(tokens);
+    }
+
+    @Nonnull
+    private ServerCall.Listener<CommandRequest> startCall(@Nonnull ServerCall<CommandRequest, CommandResponse> call,
+                                                          @Nonnull Metadata headers) {
+        Double ack = null;
+        String value = headers.get(ACK);
+        if (value != null) {
+            try {
+                ack = Double.valueOf(value);
+            } catch (NumberFormatException ex) {
+                ack = Double.NaN; // Never matches, so the client gets a keyframe
+            }
+        }
+        final Double acknowledged = ack;
+        call.request(2); // A second message is requested to reject it, like the unary calls of gRPC
+        return new ServerCall.Listener<>() {
+            private @Nullable CommandRequest request;
+            private @Nullable DeltaObserver observer;
+            private boolean rejected;
+
+            @Override
+            public void onMessage(CommandRequest message) {
+                if (request != null) {
+                    rejected = true;
+                    call.close(Status.INVALID_ARGUMENT.withDescription("Too many requests"), new Metadata());
+                    return;
+                }
+                request = message;
+            }
+
+            @Override
+            public void onHalfClose() {
+                if (rejected)
+                    return;
+                if (request == null) {
+                    call.close(Status.INVALID_ARGUMENT.withDescription("Half-closed without a request"),
+                            new Metadata());
+                    return;
+                }
+                observer = new DeltaObserver(call, request.getToken(), acknowledged);
+                command.accept(request, observer);
+            }
+
+            @Override
+            public void onComplete() {
+                if (observer != null)
+                    observer.acknowledge();
+            }
+
+            @Override
+            public void onCancel() {
+                if (observer != null)
+                    observer.discard();
+            }
+        };
+    }
+
+    /**
+     * Encodes the response of the regular {@code command} call for a single client.
+     */
+    private final class DeltaObserver implements StreamObserver<CommandResponse> {
+        private final @Nonnull ServerCall<CommandRequest, CommandResponse> call;
+        private final @Nonnull String token;
+        private final @Nullable Double ack;
+        private volatile @Nullable DeltaEncoder encoder;
+        private volatile @Nullable CommandResponse sent; // The full response that was encoded by this call
+
+        DeltaObserver(@Nonnull ServerCall<CommandRequest, CommandResponse> call, @Nonnull String token,
+                      @Nullable Double ack) {
+            this.call = call;
+            this.token = token;
+            this.ack = ack;
+        }
+
+        @Override
+        public void onNext(CommandResponse value) {
+            if (call.isCancelled())
+                return;
+            DeltaEncoder encoder = encoders.computeIfAbsent(token, t -> new DeltaEncoder(KEYFRAME_INTERVAL));
+            boolean keyframe = encoder.isKeyframe(value, ack);
+            CommandResponse response = encoder.encode(value, keyframe);
+            this.encoder = encoder;
+            this.sent = value;
+            Metadata headers = new Metadata();
+            headers.put(KEYFRAME, Boolean.toString(keyframe));
+            call.sendHeaders(headers);
+            call.sendMessage(response);
+        }
+
+        /**
+         * Acknowledges the sent response, the call completed successfully.
+         */
+        void acknowledge() {
+            DeltaEncoder encoder = this.encoder;
+            CommandResponse sent = this.sent;
+            if (encoder != null && sent != null)
+                encoder.acknowledge(sent);
+        }
+
+        /**
+         * Discards the sent response, the call was cancelled.
+         */
+        void discard() {
+            DeltaEncoder encoder = this.encoder;
+            CommandResponse sent = this.sent;
+            if (encoder != null && sent != null)
+                encoder.discard(sent);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!call.isCancelled())
+                call.close(Status.fromThrowable(t), new Metadata());
+        }
+
+        @Override
+        public void onCompleted() {
+            if (!call.isCancelled())
+                call.close(Status.OK, new Metadata());
+        }
+    }
+}
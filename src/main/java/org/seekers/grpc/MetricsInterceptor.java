@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.*;
+import org.seekers.game.Histogram;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latency and the throughput of the calls of the server. The handling time of a unary {@code join} or
+ * {@code command} call is measured from its start until it is closed, for a command this includes the wait for the
+ * next tick. The interceptor also counts the bytes of all responses and the requests with an invalid token. All
+ * recorders are allocation-free and may be used from any thread.
+ *
+ * @author karlz
+ */
+public final class MetricsInterceptor implements ServerInterceptor {
+    private final @Nonnull Histogram join = Histogram.ofNanos();
+    private final @Nonnull Histogram command = Histogram.ofNanos();
+    private final @Nonnull AtomicLong responses = new AtomicLong();
+    private final @Nonnull AtomicLong responseBytes = new AtomicLong();
+    private final @Nonnull AtomicLong rejected = new AtomicLong();
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                       ServerCallHandler<Q, R> next) {
+        final Histogram histogram = select(call.getMethodDescriptor());
+        final long start = System.nanoTime();
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(R message) {
+                if (message instanceof MessageLite) {
+                    responses.incrementAndGet();
+                    responseBytes.addAndGet(((MessageLite) message).getSerializedSize());
+                }
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (histogram != null)
+                    histogram.record(System.nanoTime() - start);
+                super.close(status, trailers);
+            }
+        }, headers);
+    }
+
+    /**
+     * Selects the histogram of a method. The plain, delta and packed commands share one histogram.
+     *
+     * @param method the method of a call
+     * @return the histogram, or null if the handling time of the method is not recorded
+     */
+    @CheckForNull
+    private Histogram select(@Nonnull MethodDescriptor<?, ?> method) {
+        if (method.getType() != MethodDescriptor.MethodType.UNARY)
+            return null;
+        final String name = method.getBareMethodName();
+        if ("join".equalsIgnoreCase(name))
+            return join;
+        if ("command".equalsIgnoreCase(name))
+            return command;
+        return null;
+    }
+
+    /**
+     * Counts a request with a token that is not part of any game.
+     */
+    void reject() {
+        rejected.incrementAndGet();
+    }
+
+    /**
+     * @return the handling time of the join calls in nanoseconds
+     */
+    @Nonnull
+    public Histogram getJoin() {
+        return join;
+    }
+
+    /**
+     * @return the handling time of the unary command calls in nanoseconds
+     */
+    @Nonnull
+    public Histogram getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the number of sent responses
+     */
+    public long getResponses() {
+        return responses.get();
+    }
+
+    /**
+     * @return the serialized size of all sent responses in bytes
+     */
+    public long getResponseBytes() {
+        return responseBytes.get();
+    }
+
+    /**
+     * @return the number of requests with an invalid token
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "join " + join + ", command " + command + ", responses " + getResponses() + " (" + getResponseBytes()
+                + " bytes), rejected tokens " + getRejected();
+    }
+}
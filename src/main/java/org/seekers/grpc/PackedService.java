@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import com.google.protobuf.BytesValue;
+import io.grpc.*;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import org.seekers.game.PackedState;
+import org.seekers.game.Player;
+import org.seekers.game.Seeker;
+import org.seekers.grpc.game.Vector2DOuterClass;
+import org.seekers.grpc.service.Command;
+
+import javax.annotation.Nonnull;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Opt-in packed protocol next to the regular {@code command} call. The {@value #SERVICE_NAME} service has a single unary
+ * {@code Command} method that works like {@code command}, but both messages are a {@code google.protobuf.BytesValue}
+ * with a packed little-endian buffer. The response is the {@link PackedState packed state} of the next tick.
+ *
+ * <p>The request starts with the token: an {@code int32} length and the ASCII bytes of the token. Then follows an
+ * {@code int32} number of commands and the commands themselves, {@value #COMMAND} bytes each: {@code int32} slot,
+ * {@code float64} target x, target y and magnet. The slot is the index of the seeker in the seeker ids of the player,
+ * commands for slots the player does not have are ignored.
+ *
+ * @author karlz
+ */
+public final class PackedService implements BindableService {
+
+    /**
+     * The full name of the packed service.
+     */
+    public static final String SERVICE_NAME = "seekers.service.SeekersPacked";
+
+    /**
+     * Size of a command record in bytes.
+     */
+    public static final int COMMAND = Integer.BYTES + 3 * Double.BYTES;
+
+    private static final MethodDescriptor<BytesValue, BytesValue> COMMAND_METHOD =
+            MethodDescriptor.<BytesValue, BytesValue>newBuilder()
+                    .setType(MethodDescriptor.MethodType.UNARY)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "Command"))
+                    .setRequestMarshaller(ProtoUtils.marshaller(BytesValue.getDefaultInstance()))
+                    .setResponseMarshaller(ProtoUtils.marshaller(BytesValue.getDefaultInstance()))
+                    .build();
+
+    private final @Nonnull Function<String, Player> players;
+    private final @Nonnull Function<Player, ? extends Executor> loops;
+
+    /**
+     * Creates a new packed service.
+     *
+     * @param players finds the player of a token, or returns null if the token is not valid
+     * @param loops   finds the game loop of a player
+     */
+    PackedService(@Nonnull Function<String, Player> players, @Nonnull Function<Player, ? extends Executor> loops) {
+        this.players = players;
+        this.loops = loops;
+    }
+
+    /**
+     * @return the descriptor of the {@code Command} method of the packed service
+     */
+    @Nonnull
+    public static MethodDescriptor<BytesValue, BytesValue> getCommandMethod() {
+        return COMMAND_METHOD;
+    }
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(SERVICE_NAME)
+                .addMethod(COMMAND_METHOD, ServerCalls.asyncUnaryCall(this::command)).build();
+    }
+
+    /**
+     * Posts the packed commands into the mailboxes of the seekers and answers with the packed state of the next tick.
+     *
+     * @apiNote Will throw {@code INVALID_ARGUMENT} if the request is malformed and {@code PERMISSION_DENIED} if the
+     * token is not valid.
+     */
+    private void command(@Nonnull BytesValue request, @Nonnull StreamObserver<BytesValue> responseObserver) {
+        final ByteBuffer buffer = request.getValue().asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        final String token;
+        final int count;
+        try {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining())
+                throw new BufferUnderflowException();
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            token = new String(bytes, StandardCharsets.US_ASCII);
+            count = buffer.getInt();
+        } catch (BufferUnderflowException ex) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Packed request is truncated")
+                    .asException());
+            return;
+        }
+        if (count < 0 || (long) count * COMMAND != buffer.remaining()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("Packed commands do not match their count")
+                    .asException());
+            return;
+        }
+
+        final Player player = players.apply(token);
+        if (player == null) {
+            responseObserver.onError(new StatusException(Status.PERMISSION_DENIED));
+            return;
+        }
+        final List<Seeker> seekers = player.getSeekers();
+        for (int i = 0; i < count; i++) {
+            final int slot = buffer.getInt();
+            final double x = buffer.getDouble();
+            final double y = buffer.getDouble();
+            final double magnet = buffer.getDouble();
+            if (slot >= 0 && slot < seekers.size()) {
+                player.post(seekers.get(slot), Command.newBuilder()
+                        .setTarget(Vector2DOuterClass.Vector2D.newBuilder().setX(x).setY(y)).setMagnet(magnet).build());
+            }
+        }
+        // The observer is set after the commands, so a game in lockstep mode only ticks after all of them
+        loops.apply(player).execute(() -> player.setPackedObserver(responseObserver));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import io.grpc.*;
+import org.seekers.grpc.service.CommandRequest;
+import org.seekers.grpc.service.CommandResponse;
+import org.seekers.grpc.service.SeekersGrpc;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Marshaller for command responses that serializes every response only once. All players of a tick receive the same
+ * response instance, so the bytes of the last serialized responses are kept and reused for every further call with the
+ * same instance. There is one cache slot for every room of the server, a response is cached in the slot of the room
+ * that published it, so the rooms do not evict each other.
+ *
+ * @author karlz
+ */
+final class ResponseMarshaller implements MethodDescriptor.Marshaller<CommandResponse> {
+
+    private final @Nonnull MethodDescriptor.Marshaller<CommandResponse> delegate =
+            SeekersGrpc.getCommandMethod().getResponseMarshaller();
+
+    private final @Nonnull AtomicReferenceArray<Serialized> slots;
+    private final @Nonnull ToIntFunction<CommandResponse> rooms;
+
+    /**
+     * Creates a new marshaller. Share a single instance between all methods that send the same responses.
+     *
+     * @param capacity the number of rooms
+     * @param rooms    finds the index of the room that published a response, or -1 if no room publishes it anymore
+     */
+    ResponseMarshaller(int capacity, @Nonnull ToIntFunction<CommandResponse> rooms) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+        this.rooms = rooms;
+    }
+
+    /**
+     * A response together with its serialized bytes.
+     */
+    private static final class Serialized {
+        private final @Nonnull CommandResponse response;
+        private final @Nonnull byte[] bytes;
+
+        Serialized(@Nonnull CommandResponse response) {
+            this.response = response;
+            this.bytes = response.toByteArray();
+        }
+    }
+
+    /**
+     * Stream over serialized bytes. gRPC only writes streams of known length without copying them first.
+     */
+    private static final class SerializedStream extends ByteArrayInputStream implements KnownLength {
+        SerializedStream(@Nonnull byte[] bytes) {
+            super(bytes);
+        }
+    }
+
+    @Override
+    public InputStream stream(CommandResponse value) {
+        int slot = rooms.applyAsInt(value);
+        if (slot < 0 || slot >= slots.length())
+            return new SerializedStream(value.toByteArray()); // An outdated response is not worth caching
+        Serialized serialized = slots.get(slot);
+        if (serialized == null || serialized.response != value) {
+            serialized = new Serialized(value);
+            slots.set(slot, serialized);
+        }
+        return new SerializedStream(serialized.bytes);
+    }
+
+    @Override
+    public CommandResponse parse(InputStream stream) {
+        return delegate.parse(stream);
+    }
+
+    /**
+     * Binds the service and replaces the marshaller of the command responses.
+     *
+     * @param service    the service
+     * @param marshaller the shared response marshaller
+     * @return the definition of the service with the shared response marshaller
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static ServerServiceDefinition bind(@Nonnull BindableService service, @Nonnull ResponseMarshaller marshaller) {
+        ServerServiceDefinition definition = service.bindService();
+        ServerServiceDefinition.Builder builder =
+                ServerServiceDefinition.builder(definition.getServiceDescriptor().getName());
+        MethodDescriptor<CommandRequest, CommandResponse> command = SeekersGrpc.getCommandMethod();
+        for (ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+            if (method.getMethodDescriptor().getFullMethodName().equals(command.getFullMethodName())) {
+                builder.addMethod(command.toBuilder(command.getRequestMarshaller(), marshaller).build(),
+                        (ServerCallHandler<CommandRequest, CommandResponse>) method.getServerCallHandler());
+            } else {
+                builder.addMethod(method);
+            }
+        }
+        return builder.build();
+    }
+}
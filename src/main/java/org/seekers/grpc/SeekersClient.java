@@ -34,11 +34,40 @@ import java.io.IOException;
 public class SeekersClient implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(SeekersClient.class);
 
+    /**
+     * The environment variable that holds the room of the client.
+     */
+    public static final String ROOM_VARIABLE = "SEEKERS_ROOM";
+
     private final Process process;
 
     public SeekersClient(String file, String exec) throws IOException {
-        ProcessBuilder builder = new ProcessBuilder(exec.replace("{file}", file).split(" "));
-        File log = new File(file + ".log");
+        this(file, exec, SeekersServer.DEFAULT_PORT);
+    }
+
+    public SeekersClient(String file, String exec, int port) throws IOException {
+        this(file, exec, port, "0");
+    }
+
+    /**
+     * Creates a client that connects to a room of a server on the given port. The placeholders {@code {port}} and
+     * {@code {room}} of the driver command are replaced by the port and the room, and the room is also passed in the
+     * environment variable {@value #ROOM_VARIABLE}. Every room has its own port, so the port already selects the
+     * room, clients may also send the room in the {@code seekers-room} header of their {@code join} request. Clients
+     * of another port than the default port log into their own file, so that the same file can be hosted by multiple
+     * rooms at once.
+     *
+     * @param file the AI file
+     * @param exec the driver command
+     * @param port the port of the server
+     * @param room the id of the room
+     * @throws IOException if the process could not be started
+     */
+    public SeekersClient(String file, String exec, int port, String room) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(exec.replace("{file}", file)
+                .replace("{port}", String.valueOf(port)).replace("{room}", room).split(" "));
+        builder.environment().put(ROOM_VARIABLE, room);
+        File log = new File(port == SeekersServer.DEFAULT_PORT ? file + ".log" : file + "." + port + ".log");
         if (!log.exists()) {
              if (log.createNewFile()) {
                  logger.debug("Logfile was created");
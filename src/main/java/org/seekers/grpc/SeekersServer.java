@@ -18,15 +18,14 @@
 package org.seekers.grpc;
 
 import com.google.common.hash.Hashing;
-import io.grpc.Server;
-import io.grpc.ServerBuilder;
-import io.grpc.Status;
-import io.grpc.StatusException;
+import io.grpc.*;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
 import io.grpc.stub.StreamObserver;
-import javafx.application.Platform;
-import javafx.geometry.Point2D;
 import javafx.scene.paint.Color;
-import javafx.stage.Stage;
 import org.ini4j.Ini;
 import org.seekers.game.*;
 import org.seekers.grpc.service.*;
@@ -35,16 +34,32 @@ import org.seekers.game.Tournament;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * The {@code SeekersServer} class represents the server-side implementation of the Seekers game. It provides the server
  * functionality for hosting the game, handling client requests, and managing game state. The server uses gRPC for
- * communication with clients.
+ * communication with clients. The server does not depend on any graphics, all changes of the game are executed by
+ * its {@link GameLoop}.
+ *
+ * <p>A server hosts one or more {@link Room rooms} in a single gRPC server. Every room has its own game, game loop,
+ * players, clients and port, and plays its own matches of the tournament. A {@code join} request is routed to the
+ * room of the port it arrived on; the {@link #ROOM room} header may select the room instead if the port does not
+ * belong to a room, but it must never contradict the port. All other requests are routed by their token.
  *
  * @author karlz
  * @author Supergecki
@@ -53,33 +68,85 @@ import java.util.concurrent.TimeUnit;
 public class SeekersServer {
     private static final Logger logger = LoggerFactory.getLogger(SeekersServer.class);
 
+    /**
+     * The port of the server if no other port is specified.
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    /**
+     * The request header that selects the room of a {@code join} request.
+     */
+    public static final Metadata.Key<String> ROOM = Metadata.Key.of("seekers-room", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final Context.Key<Room> ROOM_KEY = Context.key("seekers-room");
+
     private final @Nonnull Server server; // gRPC server socket
-    private final @Nonnull Stage stage; // Cache for close
+    private final @Nonnull ExecutorService executor; // Executor of the request handlers
+    private final @Nonnull List<EventLoopGroup> groups = new ArrayList<>(); // Native transport threads
+    private final @Nonnull DeltaService delta; // Opt-in delta protocol
     private final @Nonnull Ini config;
+    private final int port;
 
     // Collections
-    private final @Nonnull Map<String, Player> players = new HashMap<>();
+    private final @Nonnull List<Room> rooms = new ArrayList<>();
+    private final @Nonnull Map<String, Seat> seats = new ConcurrentHashMap<>(); // Registry of the tokens
+    private final @Nonnull MetricsInterceptor metrics = new MetricsInterceptor();
     private final @Nonnull Map<String, String> drivers = new HashMap<>();
-    private final @Nonnull Set<SeekersClient> clients = new HashSet<>();
     private final @Nonnull List<Section> sections = new ArrayList<>();
 
     private GameMode mode;
-    private Game game; // Game
     private Tournament tournament; // Tournament
+    private Runnable onShutdown;
+    private boolean closing; // Guarded by the rooms
+    private final @Nonnull AtomicBoolean stopped = new AtomicBoolean();
+    private final @Nonnull Random random = new SecureRandom(); // Source of the player tokens, never seeded
 
     /**
-     * Constructs a new {@code SeekersServer} instance for the port 7777.
+     * Constructs a new {@code SeekersServer} instance for the port and the number of rooms of the {@code server}
+     * section, by default 7777 and a single room.
      *
-     * @param stage   the javafx stage to show the match
      * @param config  the config
+     * @param loops   creates the game loop of every room
      */
-    public SeekersServer(@Nonnull Stage stage, @Nonnull Ini config) {
-        this.server = ServerBuilder.forPort(7777).addService(new SeekersService()).build();
-        this.stage = stage;
+    public SeekersServer(@Nonnull Ini config, @Nonnull Supplier<? extends GameLoop> loops) {
+        this(config, loops, new Properties(config).getPort(), new Properties(config).getRooms());
+    }
+
+    /**
+     * Constructs a new {@code SeekersServer} instance for the given port and number of rooms. All rooms play the same
+     * tournament at once.
+     *
+     * @param config  the config
+     * @param loops   creates the game loop of every room
+     * @param port    the port of the first room, room {@code i} listens on {@code port + i}
+     * @param rooms   the number of rooms
+     */
+    public SeekersServer(@Nonnull Ini config, @Nonnull Supplier<? extends GameLoop> loops, int port, int rooms) {
+        for (int i = 0; i < Math.max(1, rooms); i++) {
+            this.rooms.add(new Room(String.valueOf(i), port + i, loops.get()));
+        }
+        SeekersService service = new SeekersService();
+        ResponseMarshaller marshaller = new ResponseMarshaller(this.rooms.size(), this::indexOf);
+        Properties properties = new Properties(config);
+        this.delta = new DeltaService(service::command);
+        this.executor = createExecutor(properties);
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port);
+        for (int i = 1; i < this.rooms.size(); i++) {
+            builder.addListenAddress(new InetSocketAddress(port + i));
+        }
+        this.server = configure(builder, properties).intercept(new RoomInterceptor())
+                .intercept(metrics)
+                .addService(ResponseMarshaller.bind(service, marshaller)).addService(delta)
+                .addService(new SessionService(service::accept, this::getLoop, marshaller))
+                .addService(new PackedService(this::getPlayer, this::getLoop)).build();
         this.config = config;
+        this.port = port;
 
         for (var section : config.entrySet()) {
-            sections.add(Section.newBuilder().setName(section.getKey()).putAllEntries(section.getValue()).build());
+            Map<String, String> entries = new HashMap<>(section.getValue());
+            if ("global".equals(section.getKey()))
+                entries.remove("seed"); // Clients must not predict the random decisions of the game
+            sections.add(Section.newBuilder().setName(section.getKey()).putAllEntries(entries).build());
         }
         var section = config.get("drivers");
         if (section != null) {
@@ -92,7 +159,165 @@ public class SeekersServer {
     }
 
     /**
-     * Starts the server and rotates the matching schedule of the tournament. This will start the game matches.
+     * Properties of the {@code server} section. They tune the gRPC runtime, every property is optional.
+     */
+    public static class Properties {
+        private static final String SECTION = "server";
+
+        /**
+         * Creates a new properties instance from the ini object.
+         *
+         * @param ini the ini object that holds the data of {@code config.ini}
+         */
+        public Properties(Ini ini) {
+            int fetched = ini.fetch(SECTION, "port", int.class);
+            port = fetched > 0 ? fetched : DEFAULT_PORT;
+            fetched = ini.fetch(SECTION, "rooms", int.class);
+            rooms = fetched > 0 ? fetched : 1;
+            String fetchedExecutor = ini.fetch(SECTION, "executor");
+            executor = (fetchedExecutor == null || fetchedExecutor.isBlank()) ? "virtual" : fetchedExecutor.trim();
+            fetched = ini.fetch(SECTION, "threads", int.class);
+            threads = fetched > 0 ? fetched : Runtime.getRuntime().availableProcessors();
+            String fetchedEpoll = ini.fetch(SECTION, "epoll");
+            epoll = fetchedEpoll == null || fetchedEpoll.isBlank() || Boolean.parseBoolean(fetchedEpoll.trim());
+            fetched = ini.fetch(SECTION, "max-inbound-message-size", int.class);
+            maxInboundMessageSize = fetched > 0 ? fetched : 4 * 1024 * 1024;
+            keepaliveTime = ini.fetch(SECTION, "keepalive-time", long.class);
+            keepaliveTimeout = ini.fetch(SECTION, "keepalive-timeout", long.class);
+            permitKeepaliveTime = ini.fetch(SECTION, "permit-keepalive-time", long.class);
+            flowControlWindow = ini.fetch(SECTION, "flow-control-window", int.class);
+        }
+
+        final int port;
+        final int rooms;
+        final @Nonnull String executor;
+        final int threads;
+        final boolean epoll;
+        final int maxInboundMessageSize;
+        final long keepaliveTime;
+        final long keepaliveTimeout;
+        final long permitKeepaliveTime;
+        final int flowControlWindow;
+
+        /**
+         * @return the port of the first room, every further room listens on the next port
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * @return the number of rooms, every room plays its own game
+         */
+        public int getRooms() {
+            return rooms;
+        }
+
+        /**
+         * @return the executor of the request handlers, either {@code virtual} or {@code pool}
+         */
+        @Nonnull
+        public String getExecutor() {
+            return executor;
+        }
+
+        /**
+         * @return the number of threads of the pool, if virtual threads are not used
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * @return true if the native epoll transport is used if it is available
+         */
+        public boolean isEpoll() {
+            return epoll;
+        }
+
+        /**
+         * @return the maximum size of a request in bytes
+         */
+        public int getMaxInboundMessageSize() {
+            return maxInboundMessageSize;
+        }
+
+        /**
+         * @return the time without reads after which the server pings a client in milliseconds, or 0 for the default
+         */
+        public long getKeepaliveTime() {
+            return keepaliveTime;
+        }
+
+        /**
+         * @return the time the server waits for a ping to be acknowledged in milliseconds, or 0 for the default
+         */
+        public long getKeepaliveTimeout() {
+            return keepaliveTimeout;
+        }
+
+        /**
+         * @return the shortest time between two pings a client may send in milliseconds, or 0 for the default
+         */
+        public long getPermitKeepaliveTime() {
+            return permitKeepaliveTime;
+        }
+
+        /**
+         * @return the initial flow control window of every stream in bytes, or 0 for the default
+         */
+        public int getFlowControlWindow() {
+            return flowControlWindow;
+        }
+    }
+
+    /**
+     * Creates the executor of the request handlers. Virtual threads are only available since Java 21, so they are
+     * created reflectively. If they are not available, a pool with a fixed number of threads is used instead.
+     */
+    @Nonnull
+    private static ExecutorService createExecutor(@Nonnull Properties properties) {
+        if ("virtual".equalsIgnoreCase(properties.executor)) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                logger.info("Virtual threads are not available, use a pool of {} threads", properties.threads);
+            }
+        } else if (!"pool".equalsIgnoreCase(properties.executor)) {
+            logger.warn("Unknown executor {}, use a pool of {} threads", properties.executor, properties.threads);
+        }
+        return Executors.newFixedThreadPool(properties.threads);
+    }
+
+    /**
+     * Applies the properties to the server builder.
+     */
+    @Nonnull
+    private NettyServerBuilder configure(@Nonnull NettyServerBuilder builder, @Nonnull Properties properties) {
+        builder.executor(executor).maxInboundMessageSize(properties.maxInboundMessageSize);
+        if (properties.epoll && Epoll.isAvailable()) {
+            EventLoopGroup boss = new EpollEventLoopGroup(1);
+            EventLoopGroup worker = new EpollEventLoopGroup();
+            groups.add(boss);
+            groups.add(worker);
+            builder.channelType(EpollServerSocketChannel.class).bossEventLoopGroup(boss).workerEventLoopGroup(worker);
+        } else if (properties.epoll) {
+            logger.info("Epoll transport is not available, use NIO: {}", Epoll.unavailabilityCause().getMessage());
+        }
+        if (properties.keepaliveTime > 0)
+            builder.keepAliveTime(properties.keepaliveTime, TimeUnit.MILLISECONDS);
+        if (properties.keepaliveTimeout > 0)
+            builder.keepAliveTimeout(properties.keepaliveTimeout, TimeUnit.MILLISECONDS);
+        if (properties.permitKeepaliveTime > 0)
+            builder.permitKeepAliveTime(properties.permitKeepaliveTime, TimeUnit.MILLISECONDS);
+        if (properties.flowControlWindow > 0)
+            builder.initialFlowControlWindow(properties.flowControlWindow);
+        return builder;
+    }
+
+    /**
+     * Starts the server and all of its rooms. Every room rotates the matching schedule of the tournament, this will
+     * start the game matches.
      *
      * @throws IOException if unable to bind
      */
@@ -101,107 +326,269 @@ public class SeekersServer {
         Objects.requireNonNull(tournament);
 
         server.start();
-        game = mode.createGame(new Game.Properties(config), new Camp.Properties(config), new Seeker.Properties(config),
-                new Goal.Properties(config));
-        stage.setScene(game);
-        game.setOnGameStarted(g -> {
-            logger.info("Game started with players {}", g.getPlayers());
-            game.getTimeline().playFromStart();
-        });
-        game.setOnGameFinished(g -> {
-            g.addToTournament(tournament);
-            try {
-                tournament.save();
-                rotate();
-            } catch (IOException e) {
-                logger.error(e.getMessage(), e);
-            }
-        });
-        rotate();
-        logger.info("Server started");
+        for (Room room : rooms) {
+            room.start();
+        }
+        logger.info("Server started with {} rooms", rooms.size());
     }
 
     /**
-     * Stops all old clients, logs the match results and closes the server.
+     * Stops all old clients, logs the match results and closes the server. Only the first call stops the server, all
+     * later calls return immediately.
      *
      * @throws InterruptedException if the shutdown is interrupted.
      * @throws IOException          if it could not close the clients
      */
     public void stop() throws InterruptedException, IOException {
-        stopOldClients();
-        logger.info("Match results: {}", tournament.getResults());
+        if (!stopped.compareAndSet(false, true))
+            return;
+        for (Room room : rooms) {
+            room.stopOldClients();
+        }
+        synchronized (tournament) {
+            logger.info("Match results: {}", tournament.getResults());
+        }
+        logger.info("Server metrics: {}", metrics);
         server.shutdown().awaitTermination(5L, TimeUnit.SECONDS);
+        executor.shutdown();
+        for (EventLoopGroup group : groups) {
+            group.shutdownGracefully();
+        }
+        for (Room room : rooms) {
+            room.loop.stop();
+        }
         logger.info("Server shutdown");
     }
 
     /**
-     * Stops all old clients. This will clear the list of connected clients.
+     * Waits until the server is shut down.
      *
-     * @throws IOException if it could not close the client
+     * @throws InterruptedException if the waiting is interrupted.
      */
-    private void stopOldClients() throws IOException {
-        logger.info("Stop old clients");
-        for (SeekersClient client : clients) client.close();
-        clients.clear();
+    public void awaitTermination() throws InterruptedException {
+        server.awaitTermination();
     }
 
     /**
-     * Tries to host a single file over a language loader. If no language loader was found that can host the specified
-     * file, it must be hosted manually.
-     *
-     * @param file the name of the file
+     * Closes the server if no room has matches left. It is called by the game loop of the last room, which must not
+     * wait for its own loop to stop, so the server is closed on a thread of its own.
      */
-    private void hostFile(String file) throws IOException {
-        for (var entry : drivers.entrySet()) {
-            if (file.endsWith(entry.getKey())) {
-                clients.add(new SeekersClient(file, entry.getValue()));
-                return;
+    private void closeIfDone() {
+        synchronized (rooms) {
+            for (Room room : rooms) {
+                if (!room.closed)
+                    return;
             }
+            if (closing)
+                return;
+            closing = true;
         }
-        logger.warn("Could not find loader for file {}", file);
+        logger.info("No matches left, closing server");
+        new Thread(() -> {
+            try {
+                stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            if (onShutdown != null) {
+                onShutdown.run();
+            }
+        }, "shutdown").start();
     }
 
     /**
-     * Hosts new clients for the next match.
+     * A room of the server. It hosts a single game, plays the matches of the tournament one after another and hosts
+     * the clients of every match. All changes of its game are executed by its own game loop, the loops of different
+     * rooms may share their threads.
      */
-    private void hostNewClients() throws IOException {
-        logger.info("Host new clients");
-        List<String> match = tournament.getMatches().remove(0);
-        for (String file : match) {
-            hostFile(file);
+    public final class Room {
+        private final @Nonnull String id;
+        private final int port; // Port of the clients of this room
+        private final @Nonnull GameLoop loop; // Owner of the game thread
+        private final @Nonnull AtomicInteger reserved = new AtomicInteger(); // Reserved slots of the game
+        private final @Nonnull Set<String> tokens = ConcurrentHashMap.newKeySet();
+        private final @Nonnull Set<SeekersClient> clients = new HashSet<>();
+
+        private volatile Game game; // Game
+        private volatile boolean closed = false;
+
+        private Room(@Nonnull String id, int port, @Nonnull GameLoop loop) {
+            this.id = id;
+            this.port = port;
+            this.loop = loop;
         }
-    }
 
-    /**
-     * Resets the game and clears all connection data from the current players.
-     */
-    private void rebaseCached() {
-        logger.info("Reset game and clear players");
-        game.reset();
-        players.clear();
-    }
+        /**
+         * Creates the game and starts the first match.
+         *
+         * @throws IOException if it could not host the clients
+         */
+        private void start() throws IOException {
+            game = mode.createGame(new Game.Properties(config), new Camp.Properties(config),
+                    new Seeker.Properties(config), new Goal.Properties(config));
+            game.setOnGameStarted(g -> {
+                logger.info("Game of room {} started with players {}", id, g.getPlayers());
+                loop.start(g);
+            });
+            game.setOnGameFinished(g -> {
+                logMetrics(g);
+                g.addToTournament(tournament);
+                try {
+                    tournament.save();
+                    rotate();
+                } catch (IOException e) {
+                    logger.error(e.getMessage(), e);
+                }
+            });
+            rotate();
+        }
 
-    /**
-     * Rotates the matches. This will stop the current match. First stops all old clients, then restarts the game.
-     * Finally, it will host new clients for the new match. If there are no matches left, it will close the server
-     * instead.
-     *
-     * @throws IOException if it could not close the clients
-     */
-    public synchronized void rotate() throws IOException {
-        logger.info("Rebase server");
-        stopOldClients();
-        if (!tournament.getMatches().isEmpty()) {
-            rebaseCached();
-            hostNewClients();
-        } else {
-            logger.info("No matches left, closing server");
-            try {
-                stop();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        /**
+         * Logs the metrics of the finished match, so slow phases of the ticks and slow clients become visible.
+         *
+         * @param g the finished game
+         */
+        private void logMetrics(@Nonnull Game g) {
+            logger.info("Metrics of room {}: {}", id, g.getMetrics());
+            for (Player player : g.getPlayers()) {
+                logger.info("Player {} in room {}: latency {}, turnaround {}", player.getName(), id,
+                        player.getLatency(), player.getTurnaround());
+            }
+            logger.info("Server metrics: {}", metrics);
+        }
+
+        /**
+         * Reserves a slot of the game for a joining player.
+         *
+         * @return true if a slot was reserved, false if the game is full or the room is closed
+         */
+        private boolean reserve() {
+            final Game current = game;
+            if (closed || current == null)
+                return false;
+            if (reserved.incrementAndGet() <= current.getGameProperties().getPlayers())
+                return true;
+            reserved.decrementAndGet();
+            return false;
+        }
+
+        /**
+         * Releases a reserved slot, because the player could not be created.
+         */
+        private void release() {
+            reserved.decrementAndGet();
+        }
+
+        /**
+         * Stops all old clients. This will clear the list of connected clients.
+         *
+         * @throws IOException if it could not close the client
+         */
+        private void stopOldClients() throws IOException {
+            logger.info("Stop old clients of room {}", id);
+            for (SeekersClient client : clients) client.close();
+            clients.clear();
+        }
+
+        /**
+         * Tries to host a single file over a language loader. If no language loader was found that can host the
+         * specified file, it must be hosted manually.
+         *
+         * @param file the name of the file
+         */
+        private void hostFile(String file) throws IOException {
+            for (var entry : drivers.entrySet()) {
+                if (file.endsWith(entry.getKey())) {
+                    clients.add(new SeekersClient(file, entry.getValue(), port, id));
+                    return;
+                }
+            }
+            logger.warn("Could not find loader for file {}", file);
+        }
+
+        /**
+         * Hosts new clients for the next match.
+         *
+         * @param match the files of the next match
+         */
+        private void hostNewClients(@Nonnull List<String> match) throws IOException {
+            logger.info("Host new clients in room {}", id);
+            for (String file : match) {
+                hostFile(file);
+            }
+        }
+
+        /**
+         * Resets the game for the next match and clears all connection data from the current players.
+         *
+         * @param match the files of the next match, a seeded game is reseeded from them
+         */
+        private void rebaseCached(@Nonnull List<String> match) {
+            logger.info("Reset game of room {} and clear players", id);
+            for (String token : tokens) {
+                Seat seat = seats.remove(token);
+                StreamObserver<CommandResponse> session = seat != null ? seat.player.getSession() : null;
+                if (session != null) {
+                    session.onCompleted();
+                }
+            }
+            game.reset(match.hashCode());
+            delta.clear(tokens);
+            tokens.clear();
+            reserved.set(0);
+        }
+
+        /**
+         * Rotates the matches. This will stop the current match. First stops all old clients, then restarts the game.
+         * Finally, it will host new clients for the new match. If there are no matches left, it will close the room
+         * instead, and the server is closed together with its last room.
+         *
+         * @throws IOException if it could not close the clients
+         */
+        public synchronized void rotate() throws IOException {
+            logger.info("Rebase room {}", id);
+            stopOldClients();
+            List<String> match = tournament.pollMatch();
+            if (match != null) {
+                rebaseCached(match);
+                hostNewClients(match);
+            } else {
+                logger.info("No matches left, closing room {}", id);
+                closed = true;
+                closeIfDone();
             }
-            Platform.runLater(stage::close);
+        }
+
+        /**
+         * @return the id of this room, it is sent in the {@link #ROOM room} header
+         */
+        @Nonnull
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return the port of this room, every client that joins on this port plays in this room
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * @return the game hosted by this room, or null if the server was not started yet
+         */
+        public Game getGame() {
+            return game;
+        }
+
+        /**
+         * @return the game loop of this room
+         */
+        @Nonnull
+        public GameLoop getLoop() {
+            return loop;
         }
     }
 
@@ -215,6 +602,144 @@ public class SeekersServer {
         return this;
     }
 
+    /**
+     * Sets the action that is called after the server closed itself because no matches were left.
+     *
+     * @param onShutdown the action
+     * @return this server
+     */
+    public SeekersServer setOnShutdown(@Nonnull Runnable onShutdown) {
+        this.onShutdown = onShutdown;
+        return this;
+    }
+
+    /**
+     * @return the port of this server, it is the port of the first room
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return the rooms of this server
+     */
+    @Nonnull
+    public List<Room> getRooms() {
+        return Collections.unmodifiableList(rooms);
+    }
+
+    /**
+     * @return the latency and throughput metrics of the calls of this server
+     */
+    @Nonnull
+    public MetricsInterceptor getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Finds the player of a token in the registry.
+     *
+     * @param token the token of a player
+     * @return the player, or null if the token is not valid
+     */
+    @CheckForNull
+    private Player getPlayer(@Nonnull String token) {
+        Seat seat = seats.get(token);
+        if (seat == null) {
+            metrics.reject();
+            logger.error("Player {} is not part of the game", token);
+            return null;
+        }
+        return seat.player;
+    }
+
+    /**
+     * Finds the room that published a response.
+     *
+     * @param response a response of the current tick of a room
+     * @return the index of the room, or -1 if no room publishes the response anymore
+     */
+    private int indexOf(@Nonnull CommandResponse response) {
+        for (int i = 0; i < rooms.size(); i++) {
+            final Game game = rooms.get(i).game;
+            if (game != null && game.getCommandResponse() == response)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param player a player of this server
+     * @return the game loop of the room of the player
+     */
+    @Nonnull
+    private GameLoop getLoop(@Nonnull Player player) {
+        for (Room room : rooms) {
+            if (room.game == player.getGame())
+                return room.loop;
+        }
+        throw new IllegalArgumentException("Player is not part of any room");
+    }
+
+    /**
+     * The entry of a token in the registry: the player of the token and its room.
+     */
+    private static final class Seat {
+        private final @Nonnull Room room;
+        private final @Nonnull Player player;
+
+        Seat(@Nonnull Room room, @Nonnull Player player) {
+            this.room = room;
+            this.player = player;
+        }
+    }
+
+    /**
+     * Routes a call to a room. The port the call arrived on selects the room. The {@link #ROOM room} header is only
+     * needed if the port does not belong to a room, and it must match the room of the port otherwise. The room is
+     * never guessed: if neither selects a room, only a server with a single room routes the call to it.
+     *
+     * @param address the local address of the call, or null if it is unknown
+     * @param header  the room header of the call, or null if it is missing
+     * @return the room of the call, or null if the call does not belong to a room
+     */
+    @CheckForNull
+    Room route(@Nullable SocketAddress address, @Nullable String header) {
+        Room room = null;
+        if (address instanceof InetSocketAddress) {
+            int index = ((InetSocketAddress) address).getPort() - port;
+            if (index >= 0 && index < rooms.size())
+                room = rooms.get(index);
+        }
+        if (header != null) {
+            Room requested = null;
+            for (Room candidate : rooms) {
+                if (candidate.id.equals(header.trim()))
+                    requested = candidate;
+            }
+            if (room != null && room != requested)
+                return null;
+            room = requested;
+        }
+        if (room == null && header == null && rooms.size() == 1)
+            room = rooms.get(0);
+        return room;
+    }
+
+    /**
+     * Stores the {@link #route(SocketAddress, String) room} of every call in its context.
+     */
+    private final class RoomInterceptor implements ServerInterceptor {
+        @Override
+        public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                           ServerCallHandler<Q, R> next) {
+            Room room = route(call.getAttributes().get(Grpc.TRANSPORT_ATTR_LOCAL_ADDR), headers.get(ROOM));
+            if (room == null)
+                return next.startCall(call, headers);
+            return Contexts.interceptCall(Context.current().withValue(ROOM_KEY, room), call, headers, next);
+        }
+    }
+
     /**
      * The {@code SeekersService} class handles the game-related gRPC service requests.
      */
@@ -232,68 +757,111 @@ public class SeekersServer {
          */
         @Override
         public void command(CommandRequest request, StreamObserver<CommandResponse> responseObserver) {
-            Player player = players.get(request.getToken());
-            if (player != null) {
+            Seat seat = post(request);
+            if (seat != null) {
+                // The observer is set after the commands, so a game in lockstep mode only ticks after all of them
+                seat.room.loop.execute(() -> seat.player.setObserver(responseObserver));
+            } else {
+                responseObserver.onError(new StatusException(Status.PERMISSION_DENIED));
+            }
+        }
+
+        /**
+         * Posts the commands of the request into the mailboxes of the seekers. The commands are applied at the start
+         * of the next tick, a later command for the same seeker replaces an earlier one. Commands that target seekers
+         * the player does not control will be ignored.
+         *
+         * @param request the command request
+         * @return the player of the token, or null if the token is not valid
+         */
+        @CheckForNull
+        Player accept(@Nonnull CommandRequest request) {
+            Seat seat = post(request);
+            return seat != null ? seat.player : null;
+        }
+
+        /**
+         * Looks up the token of the request in the registry and posts its commands. The seekers are looked up by
+         * their dense ids in constant time.
+         *
+         * @param request the command request
+         * @return the seat of the token, or null if the token is not valid
+         */
+        @CheckForNull
+        private Seat post(@Nonnull CommandRequest request) {
+            Seat seat = seats.get(request.getToken());
+            if (seat != null) {
+                final Player player = seat.player;
                 for (Command command : request.getCommandsList()) {
-                    Seeker seeker = player.getSeekers().get(command.getSeekerId());
+                    Seeker seeker = player.getSeeker(command.getSeekerId());
                     if (seeker != null) {
-                        Point2D target = new Point2D(command.getTarget().getX(), command.getTarget().getY());
-                        if (seeker.getMagnet() != command.getMagnet() || !seeker.getTarget().equals(target)) {
-                            Platform.runLater(() -> {
-                                seeker.setTarget(target);
-                                seeker.setMagnet(command.getMagnet());
-                            });
-                        }
+                        player.post(seeker, command);
                     }
                 }
-                player.setObserver(responseObserver);
             } else {
+                metrics.reject();
                 logger.error("Player {} is not part of the game", request.getToken());
-                responseObserver.onError(new StatusException(Status.PERMISSION_DENIED));
             }
+            return seat;
         }
 
         /**
-         * Handles the "join" request from a client. If there are open slots in the game, a new player is added and
-         * assigned a token. The player details are stored in the players map along with the associated token and
-         * dispatch helper.
+         * Handles the "join" request from a client. If there are open slots in the game of the room of the request, a
+         * new player is added and assigned a token. The player details are stored in the concurrent token registry of
+         * the server along with the room of the player.
          *
          * @param request          The join request.
          * @param responseObserver The response observer.
-         * @apiNote Will throw {@code RESOURCE_EXHAUSTED} if there are no player slots available.
+         * @apiNote Will throw {@code INVALID_ARGUMENT} if the request does not belong to a room, and
+         * {@code RESOURCE_EXHAUSTED} if there are no player slots available.
          */
         @Override
-        public synchronized void join(JoinRequest request, StreamObserver<JoinResponse> responseObserver) {
-            if (game.hasOpenSlots()) {
-                Platform.runLater(() -> {
+        public void join(JoinRequest request, StreamObserver<JoinResponse> responseObserver) {
+            final Room room = ROOM_KEY.get();
+            if (room == null) {
+                logger.error("Player {} tried to join game, but the request does not select a room", request.getName());
+                responseObserver.onError(new StatusException(Status.INVALID_ARGUMENT
+                        .withDescription("Connect to the port of a room or send a matching seekers-room header")));
+            } else if (room.reserve()) {
+                final Game game = room.game;
+                room.loop.execute(() -> {
+                    final Player player;
+                    final String token;
                     try {
-                        Player player = mode.createPlayer(game);
+                        final Color color = request.hasColor() && !request.getColor().isBlank()
+                                ? Color.web(request.getColor()) : null;
+                        player = mode.createPlayer(game);
                         if (request.hasName() && !request.getName().isBlank()) {
                             logger.info("INFO: Used name {}", request.getName());
                             player.setName(request.getName());
                         }
-                        if (request.hasColor() && !request.getColor().isBlank()) {
+                        if (color != null) {
                             logger.info("INFO: Used color {}", request.getColor());
-                            player.setColor(Color.web(request.getColor()));
+                            player.setColor(color);
                         }
-                        String token = Hashing.fingerprint2011().hashString("" + Math.random(),
-                                Charset.defaultCharset()).toString();
-                        players.put(token, player);
-
+                        token = Hashing.fingerprint2011().hashLong(random.nextLong()).toString();
+                        seats.put(token, new Seat(room, player));
+                        room.tokens.add(token);
+                    } catch (Exception e) {
+                        room.release();
+                        responseObserver.onError(e);
+                        logger.warn(e.getMessage(), e);
+                        return;
+                    }
+                    try {
                         responseObserver.onNext(JoinResponse.newBuilder().setPlayerId(player.getIdentifier())
                                 .setToken(token).addAllSections(sections).build());
                         responseObserver.onCompleted();
                     } catch (Exception e) {
-                        responseObserver.onError(e);
-                        logger.warn(e.getMessage(), e);
-                    } finally {
-                        if (!game.hasOpenSlots()) {
-                            game.setGameState(GameState.RUNNING);
-                        }
+                        logger.warn(e.getMessage(), e); // The player has joined, even if its client is gone
+                    }
+                    game.publishSnapshot();
+                    if (!game.hasOpenSlots()) {
+                        game.setGameState(GameState.RUNNING);
                     }
                 });
             } else {
-                logger.error("Player {} tried to join game, but the game is already full", request.getName());
+                logger.error("Player {} tried to join game, but the room is already full", request.getName());
                 responseObserver.onError(new StatusException(Status.RESOURCE_EXHAUSTED));
             }
         }
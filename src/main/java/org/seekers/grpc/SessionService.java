@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import io.grpc.*;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import org.seekers.game.Player;
+import org.seekers.grpc.service.CommandRequest;
+import org.seekers.grpc.service.CommandResponse;
+import org.seekers.grpc.service.SeekersGrpc;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Streaming alternative to the unary {@code command} call. The {@value #SERVICE_NAME} service has a single
+ * bidirectional {@code Session} method: the client streams its commands, the server pushes the state of every tick on
+ * the same stream. The messages are the same as for {@code command}, and all commands of a session must use the same
+ * token.
+ *
+ * <p>The server respects the flow control of the client. If the client does not read fast enough, the server keeps
+ * only the latest state and sends it as soon as the stream is ready again, so a slow client skips ticks instead of
+ * buffering them. In lockstep mode, every command of a session counts as the answer of the player to the last tick.
+ *
+ * @author karlz
+ */
+public final class SessionService implements BindableService {
+
+    /**
+     * The full name of the session service.
+     */
+    public static final String SERVICE_NAME = "seekers.service.SeekersSession";
+
+    private static final MethodDescriptor<CommandRequest, CommandResponse> SESSION_METHOD =
+            MethodDescriptor.<CommandRequest, CommandResponse>newBuilder()
+                    .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "Session"))
+                    .setRequestMarshaller(SeekersGrpc.getCommandMethod().getRequestMarshaller())
+                    .setResponseMarshaller(SeekersGrpc.getCommandMethod().getResponseMarshaller())
+                    .build();
+
+    private final @Nonnull Function<CommandRequest, Player> accept;
+    private final @Nonnull Function<Player, ? extends Executor> loops;
+    private final @Nonnull ResponseMarshaller marshaller;
+
+    /**
+     * Creates a new session service.
+     *
+     * @param accept     applies the commands of a request and returns its player, or null if the token is not valid
+     * @param loops      finds the game loop of a player
+     * @param marshaller the shared response marshaller
+     */
+    SessionService(@Nonnull Function<CommandRequest, Player> accept,
+                   @Nonnull Function<Player, ? extends Executor> loops, @Nonnull ResponseMarshaller marshaller) {
+        this.accept = accept;
+        this.loops = loops;
+        this.marshaller = marshaller;
+    }
+
+    /**
+     * @return the descriptor of the {@code Session} method of the session service
+     */
+    @Nonnull
+    public static MethodDescriptor<CommandRequest, CommandResponse> getSessionMethod() {
+        return SESSION_METHOD;
+    }
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(SERVICE_NAME)
+                .addMethod(SESSION_METHOD.toBuilder(SESSION_METHOD.getRequestMarshaller(), marshaller).build(),
+                        ServerCalls.asyncBidiStreamingCall(observer ->
+                                new Session((ServerCallStreamObserver<CommandResponse>) observer)))
+                .build();
+    }
+
+    /**
+     * A single session. It receives the commands of the client and is the observer of the states of its player.
+     */
+    private final class Session implements StreamObserver<CommandRequest> {
+        private final @Nonnull ServerCallStreamObserver<CommandResponse> call;
+        private final @Nonnull StreamObserver<CommandResponse> states = new StreamObserver<>() {
+            @Override
+            public void onNext(CommandResponse value) {
+                send(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                finish(Status.fromThrowable(t));
+            }
+
+            @Override
+            public void onCompleted() {
+                finish(Status.OK);
+            }
+        };
+
+        private @CheckForNull Player player;
+        private @CheckForNull Executor loop;
+        private @CheckForNull CommandResponse pending;
+        private boolean closed = false;
+
+        Session(@Nonnull ServerCallStreamObserver<CommandResponse> call) {
+            this.call = call;
+            call.setOnReadyHandler(this::flush);
+            call.setOnCancelHandler(this::cancel);
+        }
+
+        @Override
+        public void onNext(CommandRequest request) {
+            Player accepted = accept.apply(request);
+            if (accepted == null) {
+                finish(Status.PERMISSION_DENIED);
+                detach();
+            } else if (player != null && player != accepted) {
+                finish(Status.INVALID_ARGUMENT.withDescription("All commands of a session must use the same token"));
+                detach();
+            } else {
+                if (player == null) {
+                    loop = loops.apply(accepted);
+                    player = accepted;
+                    loop.execute(() -> accepted.setSession(states));
+                }
+                loop.execute(accepted::markWaiting);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            detach();
+        }
+
+        @Override
+        public void onCompleted() {
+            detach();
+            finish(Status.OK);
+        }
+
+        /**
+         * Sends the state if the stream is ready, otherwise keeps it until the stream becomes ready. Only the latest
+         * state is kept.
+         */
+        private synchronized void send(@Nonnull CommandResponse value) {
+            if (closed)
+                return;
+            if (call.isReady()) {
+                pending = null;
+                call.onNext(value);
+            } else {
+                pending = value;
+            }
+        }
+
+        private synchronized void flush() {
+            if (!closed && pending != null && call.isReady()) {
+                call.onNext(pending);
+                pending = null;
+            }
+        }
+
+        private synchronized void finish(@Nonnull Status status) {
+            if (closed)
+                return;
+            closed = true;
+            pending = null;
+            if (call.isCancelled())
+                return;
+            if (status.isOk()) {
+                call.onCompleted();
+            } else {
+                call.onError(status.asRuntimeException());
+            }
+        }
+
+        private void cancel() {
+            synchronized (this) {
+                closed = true;
+                pending = null;
+            }
+            detach();
+        }
+
+        /**
+         * Removes this session from its player.
+         */
+        private void detach() {
+            final Player attached = player;
+            final Executor executor = loop;
+            if (attached != null && executor != null) {
+                executor.execute(() -> {
+                    if (attached.getSession() == states)
+                        attached.setSession(null);
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.ini4j.Ini;
+import org.seekers.game.GameMode;
+import org.seekers.game.ScheduledLoop;
+import org.seekers.game.Tournament;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code TournamentExecutor} plays the matches of a tournament in multiple rooms of a single headless server at
+ * once. Every room has its own game, game loop, clients and port, counted up from the port of the {@code server}
+ * section, by default {@link SeekersServer#DEFAULT_PORT}. The hosted clients connect to the port of their room, so
+ * they can only join the match they were started for. The game loops of all rooms share a pool of threads.
+ * All rooms take their matches from the same tournament and merge their results into it. The number of rooms is
+ * set by the {@code concurrency} in the {@code global} section and defaults to the number of available processors.
+ *
+ * @author karlz
+ * @see SeekersServer
+ */
+public class TournamentExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(TournamentExecutor.class);
+
+    private final @Nonnull SeekersServer server;
+    private final @Nonnull ScheduledExecutorService scheduler;
+    private final @Nonnull Tournament tournament;
+    private final @Nonnull CountDownLatch latch = new CountDownLatch(1);
+
+    /**
+     * Creates the server for the tournament. No more rooms than matches are created, but at least one room. The pool
+     * of the game loops has no more threads than rooms or available processors.
+     *
+     * @param config     the config
+     * @param mode       the game mode of all games
+     * @param tournament the tournament
+     */
+    public TournamentExecutor(@Nonnull Ini config, @Nonnull GameMode mode, @Nonnull Tournament tournament) {
+        this.tournament = tournament;
+        int fetched = config.fetch("global", "concurrency", int.class);
+        int concurrency = fetched > 0 ? fetched : Runtime.getRuntime().availableProcessors();
+        concurrency = Math.max(1, Math.min(concurrency, tournament.getMatches().size()));
+        this.scheduler = Executors.newScheduledThreadPool(
+                Math.min(concurrency, Runtime.getRuntime().availableProcessors()),
+                new ThreadFactoryBuilder().setNameFormat("simulation-%d").setDaemon(true).build());
+        final AtomicInteger rooms = new AtomicInteger();
+        this.server = new SeekersServer(config,
+                () -> new ScheduledLoop(String.valueOf(rooms.getAndIncrement()), scheduler),
+                new SeekersServer.Properties(config).getPort(), concurrency)
+                .setGameMode(mode).setTournament(tournament).setOnShutdown(latch::countDown);
+    }
+
+    /**
+     * Starts the server. Every room starts its first match.
+     *
+     * @throws IOException if the server was unable to bind
+     */
+    public void start() throws IOException {
+        logger.info("Start server with {} rooms", server.getRooms().size());
+        server.start();
+    }
+
+    /**
+     * Stops the server and the pool of the game loops. Does nothing if they are already stopped.
+     *
+     * @throws InterruptedException if the shutdown is interrupted.
+     * @throws IOException          if it could not close the clients
+     */
+    public void stop() throws InterruptedException, IOException {
+        server.stop();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Waits until the server has closed itself because no matches were left.
+     *
+     * @throws InterruptedException if the waiting is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        latch.await();
+        scheduler.shutdown();
+        synchronized (tournament) {
+            logger.info("Tournament results: {}", tournament.getResults());
+        }
+    }
+
+    /**
+     * @return the server of this executor
+     */
+    @Nonnull
+    public SeekersServer getServer() {
+        return server;
+    }
+}
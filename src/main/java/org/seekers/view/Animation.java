@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.view;
+
+import javafx.scene.layout.Pane;
+import org.seekers.game.Registry;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Base class for all animations. Animations are only part of the view and advance once per tick of the game.
+ *
+ * @author karlz
+ */
+public abstract class Animation extends Pane implements Registry.Indexed {
+
+	private final @Nonnull GameView view;
+	private int index = -1; // Index in the registry of the view
+
+	protected Animation(@Nonnull GameView view) {
+		this.view = view;
+		view.getAnimations().add(this);
+		view.getFront().getChildren().add(this);
+	}
+
+	/**
+	 * Advances this animation by a single tick.
+	 */
+	public abstract void update();
+
+	public void destroy() {
+		view.getFront().getChildren().remove(this);
+		view.getAnimations().remove(this);
+	}
+
+	@Nonnull
+	public GameView getView() {
+		return view;
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public void setIndex(int index) {
+		this.index = index;
+	}
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.view;
+
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.SceneAntialiasing;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import org.seekers.Launcher;
+import org.seekers.game.*;
+import org.seekers.game.Snapshot.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The GameView class renders a game. It is optional and attaches to an existing game, the game itself does not know
+ * about its view. The view never reads the live entities of a running game, instead it renders the
+ * {@link Snapshot snapshots} the game publishes after every tick. Reading a snapshot does not take the lock of the
+ * game, so a view can never slow down the simulation.
+ *
+ * <p>The view renders at the refresh rate of the display. If the display is faster than the game, the positions are
+ * interpolated between the last two snapshots, so the view renders one tick behind the game. If the game is faster,
+ * only the latest snapshot is rendered and the snapshots in between are dropped. If rendering a frame takes longer
+ * than a frame, the following frames are skipped until the view has caught up.
+ *
+ * @author karlz
+ */
+public class GameView extends Scene {
+
+    private static final long FRAME = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    private final @Nonnull Game game;
+    private final @Nullable GameLoop loop;
+
+    // Graphics
+    private final @Nonnull Label time = new Label();
+    private final @Nonnull VBox info = new VBox(5);
+    private final @Nonnull Group front = new Group();
+    private final @Nonnull Group back = new Group();
+    private final @Nonnull Font font = Font.loadFont(Launcher.class.getResourceAsStream("PixelFont.otf"), 24.0);
+
+    // Nodes of the entities
+    private final @Nonnull Registry<Animation> animations = new Registry<>();
+    private final @Nonnull Map<Object, Label> players = new HashMap<>();
+    private final @Nonnull Map<Object, Rectangle> camps = new HashMap<>();
+    private final @Nonnull Map<Object, Circle> goals = new HashMap<>();
+    private final @Nonnull Map<Object, Circle> seekers = new HashMap<>();
+    private final @Nonnull Map<Object, SeekerAnimation> magnets = new HashMap<>();
+
+    // Rendered snapshots
+    private @Nullable Snapshot previous;
+    private @Nullable Snapshot current;
+    private double alpha = 1;
+    private long tick = 0;
+    private long resume = 0;
+
+    /**
+     * Creates a new view for the game and starts rendering it.
+     *
+     * @param game the game to render
+     */
+    public GameView(@Nonnull Game game) {
+        this(new BorderPane(), game, null);
+    }
+
+    /**
+     * Creates a new view for the game and starts rendering it. The ticks per second of the loop are shown next to the
+     * passed playtime.
+     *
+     * @param game the game to render
+     * @param loop the loop that ticks the game
+     */
+    public GameView(@Nonnull Game game, @Nonnull GameLoop loop) {
+        this(new BorderPane(), game, loop);
+    }
+
+    private GameView(@Nonnull BorderPane parent, @Nonnull Game game, @Nullable GameLoop loop) {
+        super(parent, game.getGameProperties().getWidth(), game.getGameProperties().getHeight(), true,
+                SceneAntialiasing.BALANCED);
+        this.game = game;
+        this.loop = loop;
+
+        time.setFont(Font.loadFont(Launcher.class.getResourceAsStream("PixelFont.otf"), 16));
+        time.setTextFill(Color.WHITESMOKE);
+        info.setPadding(new Insets(10));
+
+        parent.setTop(info);
+        parent.getChildren().addAll(back, front);
+        parent.setBottom(time);
+        parent.setBackground(new Background(new BackgroundFill(Color.gray(.1), null, null)));
+
+        game.setPublishing(true);
+        game.setOnGoalScored(goal -> {
+            // Goals are scored on the simulation thread, the animation must be created on the application thread
+            Camp capture = goal.getCapture();
+            Point2D position = goal.getPosition();
+            Color color = capture != null ? capture.getPlayer().getColor() : Color.WHITE;
+            Platform.runLater(() -> new GoalAnimation(this, position, color));
+        });
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - resume < 0)
+                    return;
+                render();
+                long passed = System.nanoTime() - now;
+                if (passed > FRAME) {
+                    resume = now + passed;
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * Renders the latest state of the game. Creates nodes for new entities, removes the nodes of destroyed entities
+     * and advances all animations by the ticks that passed since the last frame. Only the published snapshots are
+     * rendered, nothing is rendered until the game published its first snapshot.
+     */
+    public void render() {
+        final Snapshot latest = game.getSnapshot();
+        if (latest == null)
+            return;
+        if (latest != current) {
+            previous = current;
+            current = latest;
+        }
+        alpha = 1;
+        if (previous != null && previous.getTick() + 1 == latest.getTick()) {
+            double period = latest.getTime() - previous.getTime();
+            alpha = Math.min(1, (System.nanoTime() - latest.getTime()) / period);
+        }
+
+        sync(latest.getPlayers(), players, player -> add(info.getChildren(), createLabel()),
+                label -> info.getChildren().remove(label));
+        sync(latest.getCamps(), camps, camp -> add(back.getChildren(), createCamp(camp)),
+                rect -> back.getChildren().remove(rect));
+        sync(latest.getGoals(), goals, goal -> add(front.getChildren(), new Circle(goal.getRadius())),
+                circle -> front.getChildren().remove(circle));
+        sync(latest.getSeekers(), magnets, seeker -> new SeekerAnimation(this, seeker.getRadius()),
+                Animation::destroy);
+        sync(latest.getSeekers(), seekers, seeker -> add(front.getChildren(), new Circle(seeker.getRadius())),
+                circle -> front.getChildren().remove(circle));
+
+        long passed = latest.getTick();
+        for (long i = (passed >= tick) ? passed - tick : passed; i > 0; i--) {
+            animations.lock();
+            for (int a = 0; a < animations.size(); a++) {
+                animations.get(a).update();
+            }
+            animations.unlock();
+        }
+        tick = passed;
+
+        for (PlayerState player : latest.getPlayers()) {
+            render(player, players.get(player.getEntity()));
+        }
+        for (CampState camp : latest.getCamps()) {
+            render(camp, camps.get(camp.getEntity()));
+        }
+        List<GoalState> goals = latest.getGoals();
+        for (int i = 0; i < goals.size(); i++) {
+            render(goals.get(i), previous != null ? find(previous.getGoals(), goals.get(i), i) : null);
+        }
+        List<SeekerState> seekers = latest.getSeekers();
+        for (int i = 0; i < seekers.size(); i++) {
+            render(seekers.get(i), previous != null ? find(previous.getSeekers(), seekers.get(i), i) : null);
+        }
+        time.setText(loop == null ? "[ " + tick + " ]"
+                : String.format("[ %d ] %.0f TPS", tick, loop.getTicksPerSecond()));
+    }
+
+    private void render(@Nonnull PlayerState player, @Nonnull Label label) {
+        label.setText(String.format("%4d %s", player.getScore(), player.getName()));
+        label.setTextFill(player.getColor());
+    }
+
+    private void render(@Nonnull CampState camp, @Nonnull Rectangle rect) {
+        rect.setStroke(camp.getColor());
+        rect.setLayoutX(camp.getPosition().getX() - camp.getWidth() * 0.5);
+        rect.setLayoutY(camp.getPosition().getY() - camp.getHeight() * 0.5);
+    }
+
+    private void render(@Nonnull GoalState goal, @Nullable GoalState before) {
+        Circle circle = goals.get(goal.getEntity());
+        Color color = goal.getCapture();
+        if (color == null || goal.getProgress() == 0) {
+            circle.setFill(Color.WHITE);
+        } else {
+            double progress = goal.getProgress();
+            circle.setFill(Color.color(1 + (color.getRed() - 1) * progress, 1 + (color.getGreen() - 1) * progress,
+                    1 + (color.getBlue() - 1) * progress));
+        }
+        circle.setCenterX(before != null ? interpolateX(before.getX(), goal.getX()) : goal.getX());
+        circle.setCenterY(before != null ? interpolateY(before.getY(), goal.getY()) : goal.getY());
+    }
+
+    private void render(@Nonnull SeekerState seeker, @Nullable SeekerState before) {
+        double x = before != null ? interpolateX(before.getX(), seeker.getX()) : seeker.getX();
+        double y = before != null ? interpolateY(before.getY(), seeker.getY()) : seeker.getY();
+
+        Circle circle = seekers.get(seeker.getEntity());
+        Color color = seeker.getColor();
+        circle.setFill(seeker.isDisabled() ? color.darker().darker() : color);
+        circle.setCenterX(x);
+        circle.setCenterY(y);
+
+        SeekerAnimation animation = magnets.get(seeker.getEntity());
+        animation.setColor(color);
+        animation.setMagnet(seeker.getMagnet());
+        animation.setVisible(seeker.getMagnet() != 0 && !seeker.isDisabled());
+        animation.setLayoutX(x);
+        animation.setLayoutY(y);
+    }
+
+    private double interpolateX(double from, double to) {
+        return interpolate(from, to, Objects.requireNonNull(current).getWidth());
+    }
+
+    private double interpolateY(double from, double to) {
+        return interpolate(from, to, Objects.requireNonNull(current).getHeight());
+    }
+
+    /**
+     * Interpolates between two coordinates on the torus. Objects that wrap around the border of the map move along
+     * the shorter way.
+     */
+    private double interpolate(double from, double to, double size) {
+        double delta = to - from;
+        if (delta > size * 0.5) {
+            delta -= size;
+        } else if (delta < -size * 0.5) {
+            delta += size;
+        }
+        double value = from + delta * alpha;
+        return value < 0 ? value + size : (value >= size ? value - size : value);
+    }
+
+    /**
+     * Finds the state of the same entity in the previous snapshot. Entities are usually stored at the same index in
+     * every snapshot, so the index is checked first.
+     */
+    @Nullable
+    private static <S extends State> S find(@Nonnull List<S> states, @Nonnull S state, int index) {
+        if (index < states.size() && states.get(index).getEntity() == state.getEntity())
+            return states.get(index);
+        for (S candidate : states) {
+            if (candidate.getEntity() == state.getEntity())
+                return candidate;
+        }
+        return null;
+    }
+
+    @Nonnull
+    private Label createLabel() {
+        Label label = new Label();
+        label.setFont(font);
+        return label;
+    }
+
+    @Nonnull
+    private Rectangle createCamp(@Nonnull CampState camp) {
+        Rectangle rect = new Rectangle(camp.getWidth(), camp.getHeight());
+        rect.setFill(Color.TRANSPARENT);
+        rect.setStrokeWidth(6);
+        return rect;
+    }
+
+    @Nonnull
+    private static <N extends Node> N add(@Nonnull List<Node> children, @Nonnull N node) {
+        children.add(node);
+        return node;
+    }
+
+    /**
+     * Synchronizes the nodes with the entities of the snapshot. Nodes of entities that no longer exist are removed,
+     * new entities get a new node.
+     */
+    private static <S extends State, N> void sync(@Nonnull List<S> states, @Nonnull Map<Object, N> nodes,
+                                                  @Nonnull Function<S, N> create, @Nonnull Consumer<N> remove) {
+        boolean changed = nodes.size() != states.size();
+        for (int i = 0; !changed && i < states.size(); i++) {
+            changed = !nodes.containsKey(states.get(i).getEntity());
+        }
+        if (changed) {
+            Set<Object> alive = new HashSet<>();
+            for (S state : states) {
+                alive.add(state.getEntity());
+            }
+            nodes.entrySet().removeIf(entry -> {
+                if (alive.contains(entry.getKey()))
+                    return false;
+                remove.accept(entry.getValue());
+                return true;
+            });
+            for (S state : states) {
+                nodes.computeIfAbsent(state.getEntity(), e -> create.apply(state));
+            }
+        }
+    }
+
+    @Nonnull
+    public Game getGame() {
+        return game;
+    }
+
+    @Nonnull
+    Registry<Animation> getAnimations() {
+        return animations;
+    }
+
+    @Nonnull
+    Group getFront() {
+        return front;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.view;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The scoring animation for goals.
+ *
+ * @author karlz
+ */
+public class GoalAnimation extends Animation {
+
+    private static final double ANIMATION_RANGE = 50.0;
+    private final Circle wave = new Circle(0);
+
+    /**
+     * Creates a new scoring animation.
+     *
+     * @param view     the view that shows the animation
+     * @param position the position of the scored goal
+     * @param color    the color of the scoring player
+     */
+    public GoalAnimation(@Nonnull GameView view, @Nonnull Point2D position, @Nonnull Color color) {
+        super(view);
+        getChildren().add(wave);
+        setLayoutX(position.getX());
+        setLayoutY(position.getY());
+        wave.setFill(Color.color(color.getRed(), color.getGreen(), color.getBlue(), 0.25));
+        wave.setStroke(color);
+        wave.setStrokeWidth(2);
+    }
+
+    @Override
+    public void update() {
+        var next = wave.getRadius() + 0.75;
+        if (next < ANIMATION_RANGE) {
+            wave.setRadius(next);
+            wave.setStrokeWidth(1 + next / ANIMATION_RANGE);
+        } else {
+            destroy();
+        }
+    }
+}
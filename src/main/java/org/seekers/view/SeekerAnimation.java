@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.view;
+
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The magnet animation for seekers. It is only visible while the magnet of the seeker is switched on.
+ *
+ * @author karlz
+ */
+public class SeekerAnimation extends Animation {
+
+    private final double radius;
+    private final @Nonnull List<Circle> indicators;
+    private final @Nonnull List<Double> expansions = new ArrayList<>(List.of(
+            getAnimationRange() / 3, getAnimationRange() * 2 / 3, getAnimationRange()
+    ));
+
+    private int frameTime = 8;
+    private double magnet = 0;
+
+    /**
+     * Creates a new magnet animation.
+     *
+     * @param view   the view that shows the animation
+     * @param radius the radius of the seeker
+     */
+    public SeekerAnimation(@Nonnull GameView view, double radius) {
+        super(view);
+        this.radius = radius;
+        this.indicators = List.of(
+                new Circle(radius + getAnimationRange() / 3),
+                new Circle(radius + getAnimationRange() * 2 / 3),
+                new Circle(radius + getAnimationRange())
+        );
+        for (var indicator : indicators) {
+            indicator.setFill(Color.TRANSPARENT);
+            indicator.setStrokeWidth(2);
+            getChildren().add(indicator);
+        }
+        setVisible(false);
+    }
+
+    @Override
+    public void update() {
+        frameTime--;
+        if (frameTime < 0) {
+            for (int i = 0; i < expansions.size(); i++) {
+                var range = expansions.get(i) - Math.signum(magnet);
+                if (range > getAnimationRange()) range -= getAnimationRange();
+                if (range < 0) range += getAnimationRange();
+                expansions.set(i, range);
+                indicators.get(i).setRadius(range + radius);
+                frameTime = 8;
+            }
+        }
+    }
+
+    /**
+     * Sets the magnet of the seeker. The sign of the magnet defines the direction of the animation.
+     *
+     * @param magnet the magnet of the seeker
+     */
+    public void setMagnet(double magnet) {
+        this.magnet = magnet;
+    }
+
+    /**
+     * Sets the color of all indicators.
+     *
+     * @param color the color of the player
+     */
+    public void setColor(@Nonnull Color color) {
+        for (var indicator : indicators)
+            indicator.setStroke(color);
+    }
+
+    /**
+     * Returns the animation range of the Seeker.
+     *
+     * @return The animation range of the Seeker.
+     */
+    public double getAnimationRange() {
+        return 26;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the contact pipeline finds every overlapping pair exactly once and that a parallel collection resolves
+ * the same contacts as a serial one.
+ *
+ * @author karlz
+ */
+class ContactsTest {
+
+    @Test
+    void collectFindsEveryPairOnce() throws IOException {
+        final Game game = crowded();
+        final GameMap map = game.getGameMap();
+        final List<Physical<?>> physicals = game.getPhysicals();
+        int expected = 0;
+        for (int i = 0; i < physicals.size(); i++) {
+            for (int j = i + 1; j < physicals.size(); j++) {
+                final Physical<?> first = physicals.get(i);
+                final Physical<?> second = physicals.get(j);
+                if (map.isWithin(first.getX(), first.getY(), second.getX(), second.getY(),
+                        first.getRadius() + second.getRadius())) {
+                    expected++;
+                }
+            }
+        }
+        assertTrue(expected > 0);
+        game.getContacts().collect(map);
+        assertEquals(expected, game.getContacts().getSize());
+    }
+
+    @Test
+    void parallelCollectionSolvesLikeSerial() throws IOException {
+        final Game serial = crowded();
+        final Game parallel = crowded();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            serial.getContacts().collect(serial.getGameMap());
+            parallel.getContacts().collect(parallel.getGameMap(), pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(serial.getContacts().getSize(), parallel.getContacts().getSize());
+        serial.getContacts().solve();
+        parallel.getContacts().solve();
+        final World expected = serial.getWorld();
+        final World actual = parallel.getWorld();
+        final int size = expected.getSize();
+        assertEquals(size, actual.getSize());
+        assertArrayEquals(Arrays.copyOf(expected.positionX, size), Arrays.copyOf(actual.positionX, size));
+        assertArrayEquals(Arrays.copyOf(expected.positionY, size), Arrays.copyOf(actual.positionY, size));
+        assertArrayEquals(Arrays.copyOf(expected.velocityX, size), Arrays.copyOf(actual.velocityX, size));
+        assertArrayEquals(Arrays.copyOf(expected.velocityY, size), Arrays.copyOf(actual.velocityY, size));
+    }
+
+    @Test
+    void solveSeparatesTheObjects() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 2);
+        final Goal first = game.getGoals().get(0);
+        final Goal second = game.getGoals().get(1);
+        second.setPosition(first.getX() + 1, first.getY());
+        final double min = first.getRadius() + second.getRadius();
+        game.getContacts().collect(game.getGameMap());
+        assertTrue(game.getContacts().getSize() > 0);
+        game.getContacts().solve();
+        final double distance = game.getGameMap().getDistance(first.getPosition(), second.getPosition());
+        assertTrue(distance >= min);
+    }
+
+    /**
+     * Creates a game with more objects than a chunk of the collection and packs them into a small square, so that
+     * many of them overlap.
+     */
+    @Nonnull
+    private static Game crowded() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 16);
+        final List<Physical<?>> physicals = game.getPhysicals();
+        assertTrue(physicals.size() > 64);
+        final int side = (int) Math.ceil(Math.sqrt(physicals.size()));
+        for (int i = 0; i < physicals.size(); i++) {
+            physicals.get(i).setPosition(100 + 12.5 * (i % side), 100 + 12.5 * (i / side));
+        }
+        return game;
+    }
+}
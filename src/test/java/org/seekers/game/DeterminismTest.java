@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.ini4j.Ini;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that a seeded game does not depend on the way it is computed. The parallel tick and the vector integrator
+ * must produce bit-identical worlds to the serial tick and the scalar integrator.
+ *
+ * @author karlz
+ */
+class DeterminismTest {
+    private static final int PLAYERS = 8;
+    private static final int TICKS = 1000;
+
+    @Test
+    void parallelTickMatchesSerialTick() throws IOException {
+        assertSameWorld(play(false), play(true));
+    }
+
+    @Test
+    void vectorIntegratorMatchesScalarIntegrator() throws IOException {
+        assumeTrue(!(Integrator.create() instanceof ScalarIntegrator), "Vector integrator is not available");
+        final World vector = play(false);
+        System.setProperty(Integrator.PROPERTY, "scalar");
+        try {
+            assertSameWorld(vector, play(false));
+        } finally {
+            System.clearProperty(Integrator.PROPERTY);
+        }
+    }
+
+    /**
+     * Plays a seeded match, in which every seeker chases a goal, for a fixed number of ticks.
+     *
+     * @param parallel if the tick is parallel
+     * @return the world of the game after the last tick
+     */
+    @Nonnull
+    private static World play(boolean parallel) throws IOException {
+        final Ini ini = new Ini(
+                Objects.requireNonNull(DeterminismTest.class.getResourceAsStream("/org/seekers/config.ini")));
+        ini.put("global", "players", PLAYERS);
+        ini.put("global", "playtime", TICKS + 1);
+        ini.put("global", "seed", 42);
+        ini.put("global", "parallel", parallel);
+        final StandardMode mode = new StandardMode();
+        final Game game = mode.createGame(new Game.Properties(ini), new Camp.Properties(ini),
+                new Seeker.Properties(ini), new Goal.Properties(ini));
+        game.reset(0);
+        for (int i = 0; i < PLAYERS; i++) {
+            mode.createPlayer(game);
+        }
+        game.setGameState(GameState.RUNNING);
+        int i = 0;
+        for (Seeker seeker : game.getSeekers()) {
+            seeker.setTarget(game.getGoals().get(i % game.getGoals().size()).getPosition());
+            seeker.setMagnet(i++ % 3 == 0 ? 1 : 0);
+        }
+        for (int tick = 0; tick < TICKS; tick++) {
+            game.tick();
+        }
+        assertEquals(GameState.RUNNING, game.getGameState());
+        return game.getWorld();
+    }
+
+    private static void assertSameWorld(@Nonnull World expected, @Nonnull World actual) {
+        final int size = expected.getSize();
+        assertEquals(size, actual.getSize());
+        assertArrayEquals(Arrays.copyOf(expected.positionX, size), Arrays.copyOf(actual.positionX, size));
+        assertArrayEquals(Arrays.copyOf(expected.positionY, size), Arrays.copyOf(actual.positionY, size));
+        assertArrayEquals(Arrays.copyOf(expected.velocityX, size), Arrays.copyOf(actual.velocityX, size));
+        assertArrayEquals(Arrays.copyOf(expected.velocityY, size), Arrays.copyOf(actual.velocityY, size));
+        assertArrayEquals(Arrays.copyOf(expected.accelerationX, size), Arrays.copyOf(actual.accelerationX, size));
+        assertArrayEquals(Arrays.copyOf(expected.accelerationY, size), Arrays.copyOf(actual.accelerationY, size));
+    }
+}
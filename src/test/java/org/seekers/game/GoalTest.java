@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that goals are adopted by the camps at the position they have after the contacts of the tick are solved,
+ * like in the original game where every object resolved its collisions before it was adopted.
+ *
+ * @author karlz
+ */
+class GoalTest {
+
+    @Test
+    void goalPushedIntoCampIsAdopted() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 2);
+        final Camp camp = game.getCamps().get(0);
+        final Goal goal = game.getGoals().get(0);
+        final Goal pusher = game.getGoals().get(1);
+        final double edge = camp.getPosition().getX() + camp.getWidth() / 2;
+        final double y = camp.getPosition().getY();
+        clear(game, goal, pusher);
+        goal.setPosition(edge + 1, y);
+        pusher.setPosition(edge + 3, y);
+        assertFalse(camp.contains(goal.getPosition()));
+
+        game.setGameState(GameState.RUNNING);
+        game.tick();
+        assertTrue(camp.contains(goal.getPosition()));
+        assertSame(camp, goal.getCapture());
+        assertEquals(0, goal.getTimeOwned());
+
+        game.tick();
+        assertSame(camp, goal.getCapture());
+        assertEquals(1, goal.getTimeOwned());
+    }
+
+    /**
+     * Moves all other physical objects far away from the camps and from each other and stops them.
+     */
+    private static void clear(Game game, Goal goal, Goal pusher) {
+        final double width = game.getGameProperties().getWidth();
+        final double height = game.getGameProperties().getHeight();
+        int cell = 0;
+        for (Physical<?> physical : game.getPhysicals()) {
+            physical.setVelocity(Point2D.ZERO);
+            if (physical == goal || physical == pusher)
+                continue;
+            double x;
+            double y;
+            do {
+                x = 50 * (cell % (int) (width / 50)) + 25;
+                y = 50 * (cell / (int) (width / 50)) + 25;
+                cell++;
+            } while (near(game, x, y));
+            assertTrue(y < height);
+            physical.setPosition(x, y);
+        }
+    }
+
+    private static boolean near(Game game, double x, double y) {
+        for (Camp camp : game.getCamps()) {
+            if (game.getGameMap().getDistance(camp.getPosition().getX(), camp.getPosition().getY(), x, y)
+                    < camp.getWidth() + camp.getHeight())
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the broadphase grid finds every pair of overlapping objects, also across the edges of the torus.
+ *
+ * @author karlz
+ */
+class GridTest {
+
+    @Test
+    void queryFindsAllOverlappingObjects() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 16);
+        final Grid<Physical<?>> grid = fill(game);
+        for (Physical<?> physical : game.getPhysicals()) {
+            final Set<Integer> candidates = candidates(grid, physical.getSlot());
+            assertFalse(candidates.contains(physical.getSlot()));
+            for (Physical<?> other : game.getPhysicals()) {
+                if (other != physical && game.getGameMap().isWithin(physical.getX(), physical.getY(), other.getX(),
+                        other.getY(), physical.getRadius() + other.getRadius())) {
+                    assertTrue(candidates.contains(other.getSlot()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void queryWrapsAtTheEdges() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 2);
+        final Grid<Physical<?>> grid = fill(game);
+        final Physical<?> first = game.getGoals().get(0);
+        final Physical<?> second = game.getGoals().get(1);
+        final double width = game.getGameProperties().getWidth();
+        final double height = game.getGameProperties().getHeight();
+        first.setPosition(1, 1);
+        second.setPosition(width - 1, height - 1);
+        grid.update(first.getSlot());
+        grid.update(second.getSlot());
+        assertTrue(candidates(grid, first.getSlot()).contains(second.getSlot()));
+        assertTrue(candidates(grid, second.getSlot()).contains(first.getSlot()));
+    }
+
+    @Test
+    void removedObjectsAreNotFound() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 2);
+        final Grid<Physical<?>> grid = fill(game);
+        final Physical<?> first = game.getGoals().get(0);
+        final Physical<?> second = game.getGoals().get(1);
+        second.setPosition(first.getX(), first.getY());
+        grid.update(second.getSlot());
+        assertTrue(candidates(grid, first.getSlot()).contains(second.getSlot()));
+        grid.remove(second.getSlot());
+        assertFalse(grid.contains(second.getSlot()));
+        assertFalse(candidates(grid, first.getSlot()).contains(second.getSlot()));
+        final int count = grid.query(first.getX(), first.getY());
+        for (int i = 0; i < count; i++) {
+            assertNotEquals(second.getSlot(), grid.getCandidates()[i]);
+        }
+    }
+
+    @Nonnull
+    private static Grid<Physical<?>> fill(@Nonnull Game game) {
+        final Grid<Physical<?>> grid = new Grid<>(game.getWorld(), game.getGameProperties().getWidth(),
+                game.getGameProperties().getHeight());
+        for (Physical<?> physical : game.getPhysicals()) {
+            grid.insert(physical);
+        }
+        return grid;
+    }
+
+    @Nonnull
+    private static Set<Integer> candidates(@Nonnull Grid<Physical<?>> grid, int slot) {
+        final int count = grid.query(slot);
+        final Set<Integer> candidates = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(grid.getCandidates()[i]);
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the percentiles of a histogram are the upper bounds of their power-of-two buckets.
+ *
+ * @author karlz
+ */
+class HistogramTest {
+
+    @Test
+    void percentileIsUpperBoundOfItsBucket() {
+        final Histogram histogram = Histogram.ofCounts();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(511, histogram.getPercentile(0.5)); // 500 lies in [256, 511]
+        assertEquals(1000, histogram.getPercentile(0.99)); // 990 lies in [512, 1023], capped by the maximum
+        assertEquals(1, histogram.getPercentile(0.001));
+        assertEquals(1, histogram.getPercentile(0));
+        for (double quantile = 0.01; quantile <= 1; quantile += 0.01) {
+            final long exact = (long) Math.ceil(quantile * 1000);
+            final long bound = histogram.getPercentile(quantile);
+            assertTrue(bound >= exact, "quantile " + quantile);
+            assertTrue(bound < 2 * exact, "quantile " + quantile);
+        }
+    }
+
+    @Test
+    void bucketBoundsArePowersOfTwoMinusOne() {
+        for (int bit = 1; bit < Long.SIZE - 1; bit++) {
+            final Histogram histogram = Histogram.ofCounts();
+            histogram.record(1L << bit);
+            histogram.record((1L << (bit + 1)) - 1);
+            assertEquals((1L << (bit + 1)) - 1, histogram.getPercentile(0.5), "bit " + bit);
+        }
+    }
+
+    @Test
+    void largestValues() {
+        final Histogram histogram = Histogram.ofCounts();
+        histogram.record(1L << 62);
+        assertEquals(1L << 62, histogram.getPercentile(1));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(1));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(0.5));
+    }
+
+    @Test
+    void zeroAndNegativeValues() {
+        final Histogram histogram = Histogram.ofCounts();
+        assertEquals(0, histogram.getPercentile(0.99));
+        histogram.record(-5);
+        histogram.record(0);
+        assertEquals(0, histogram.getPercentile(1));
+        assertEquals(0, histogram.getMax());
+        histogram.record(3);
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(3, histogram.getPercentile(1));
+    }
+
+    @Test
+    void resetRemovesAllValues() {
+        final Histogram histogram = Histogram.ofNanos();
+        histogram.record(1_000_000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0, histogram.getMean());
+    }
+}
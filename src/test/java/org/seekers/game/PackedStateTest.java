@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decodes a packed state with the documented layout and compares every field with the game.
+ *
+ * @author karlz
+ */
+class PackedStateTest {
+
+    @Test
+    void recordsFollowTheDocumentedLayout() throws IOException {
+        final Game game = TestGames.create(TestGames.config(), 2);
+        final Camp camp = game.getCamps().get(1);
+        final Goal captured = game.getGoals().get(0);
+        captured.setPosition(camp.getPosition());
+        captured.setVelocity(new Point2D(0.5, -0.25));
+        captured.adopt();
+        captured.adopt();
+        final Seeker magnetic = game.getSeekers().get(1);
+        magnetic.setMagnet(-2);
+        magnetic.setTarget(12.5, 100.25);
+        final Seeker disabled = game.getSeekers().get(2);
+        disabled.disable();
+
+        final byte[] bytes = PackedState.encode(game).getValue().toByteArray();
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(PackedState.HEADER + 2 * PackedState.PLAYER + 2 * PackedState.CAMP
+                + game.getGoals().size() * PackedState.GOAL + game.getSeekers().size() * PackedState.SEEKER,
+                bytes.length);
+
+        assertEquals(PackedState.VERSION, buffer.getInt());
+        assertEquals(game.getPlayers().size(), buffer.getInt());
+        assertEquals(game.getCamps().size(), buffer.getInt());
+        assertEquals(game.getGoals().size(), buffer.getInt());
+        assertEquals(game.getSeekers().size(), buffer.getInt());
+        assertEquals(game.getPassedPlaytime(), buffer.getDouble());
+
+        for (Player player : game.getPlayers()) {
+            final int start = buffer.position();
+            assertEquals(player.getId(), buffer.getInt());
+            assertEquals(player.getCamp() != null ? player.getCamp().getId() : -1, buffer.getInt());
+            assertEquals(player.getScore(), buffer.getInt());
+            assertEquals(PackedState.PLAYER, buffer.position() - start);
+        }
+        for (Camp other : game.getCamps()) {
+            final int start = buffer.position();
+            assertEquals(other.getId(), buffer.getInt());
+            assertEquals(other.getPlayer().getId(), buffer.getInt());
+            assertEquals(other.getPosition().getX(), buffer.getDouble());
+            assertEquals(other.getPosition().getY(), buffer.getDouble());
+            assertEquals(PackedState.CAMP, buffer.position() - start);
+        }
+        for (Goal goal : game.getGoals()) {
+            final int start = buffer.position();
+            assertEquals(goal.getId(), buffer.getInt());
+            assertEquals(goal == captured ? camp.getId() : -1, buffer.getInt());
+            assertEquals(goal.getX(), buffer.getDouble());
+            assertEquals(goal.getY(), buffer.getDouble());
+            assertEquals(goal.getVelocity().getX(), buffer.getDouble());
+            assertEquals(goal.getVelocity().getY(), buffer.getDouble());
+            assertEquals(goal.getTimeOwned(), buffer.getInt());
+            assertEquals(goal == captured ? PackedState.CAPTURED : 0, buffer.getInt());
+            assertEquals(PackedState.GOAL, buffer.position() - start);
+        }
+        assertEquals(1, captured.getTimeOwned());
+        for (Seeker seeker : game.getSeekers()) {
+            final int start = buffer.position();
+            assertEquals(seeker.getId(), buffer.getInt());
+            assertEquals(seeker.getPlayer().getId(), buffer.getInt());
+            assertEquals(seeker.getX(), buffer.getDouble());
+            assertEquals(seeker.getY(), buffer.getDouble());
+            assertEquals(seeker.getVelocity().getX(), buffer.getDouble());
+            assertEquals(seeker.getVelocity().getY(), buffer.getDouble());
+            assertEquals(seeker.getTargetX(), buffer.getDouble());
+            assertEquals(seeker.getTargetY(), buffer.getDouble());
+            assertEquals(seeker.getMagnet(), buffer.getDouble());
+            assertEquals(seeker.getDisabledCounter(), buffer.getInt());
+            final int flags = buffer.getInt();
+            assertEquals(seeker == disabled, (flags & PackedState.DISABLED) != 0);
+            assertEquals(seeker == magnetic, (flags & PackedState.MAGNETIC) != 0);
+            assertEquals(PackedState.SEEKER, buffer.position() - start);
+        }
+        assertFalse(buffer.hasRemaining());
+        assertEquals(-2, magnetic.getMagnet());
+        assertEquals(12.5, magnetic.getTargetX());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a parallel range visits every index exactly once, whatever the threshold.
+ *
+ * @author karlz
+ */
+class ParallelRangeTest {
+
+    @Test
+    void visitsEveryIndexOnce() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[]{0, 1, 7, 64, 1000}) {
+                final AtomicIntegerArray visits = new AtomicIntegerArray(1000);
+                pool.invoke(new ParallelRange(3, 997, threshold, visits::incrementAndGet));
+                for (int i = 0; i < visits.length(); i++) {
+                    assertEquals(i >= 3 && i < 997 ? 1 : 0, visits.get(i), "index " + i + ", threshold " + threshold);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void emptyRangeDoesNothing() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            pool.invoke(new ParallelRange(5, 5, 1, i -> fail("visited " + i)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void exceptionsArePropagated() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThrows(IllegalStateException.class, () -> pool.invoke(new ParallelRange(0, 100, 4, i -> {
+                if (i == 42)
+                    throw new IllegalStateException();
+            })));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the swap-remove of the registry, the indices stored in the entities and the queue of a locked registry.
+ *
+ * @author karlz
+ */
+class RegistryTest {
+
+    @Test
+    void removeMovesTheLastEntityIntoTheGap() {
+        final Registry<Item> registry = new Registry<>();
+        final Item a = new Item(), b = new Item(), c = new Item(), d = new Item();
+        registry.addAll(List.of(a, b, c, d));
+        assertEquals(List.of(a, b, c, d), registry);
+
+        assertTrue(registry.remove(b));
+        assertEquals(List.of(a, d, c), registry);
+        assertEquals(1, d.getIndex());
+        assertEquals(-1, b.getIndex());
+        assertFalse(registry.contains(b));
+        assertFalse(registry.remove(b));
+
+        assertTrue(registry.remove(c));
+        assertEquals(List.of(a, d), registry);
+        for (int i = 0; i < registry.size(); i++) {
+            assertEquals(i, registry.get(i).getIndex());
+            assertEquals(i, registry.indexOf(registry.get(i)));
+        }
+    }
+
+    @Test
+    void addRejectsDuplicates() {
+        final Registry<Item> registry = new Registry<>();
+        final Item a = new Item();
+        assertTrue(registry.add(a));
+        assertFalse(registry.add(a));
+        assertEquals(1, registry.size());
+        assertEquals(-1, registry.indexOf(new Item()));
+        assertEquals(-1, registry.indexOf("a"));
+    }
+
+    @Test
+    void entitiesOfAnotherRegistryAreNotContained() {
+        final Registry<Item> first = new Registry<>();
+        final Registry<Item> second = new Registry<>();
+        final Item a = new Item(), b = new Item();
+        first.add(a);
+        second.add(b);
+        assertFalse(first.contains(b));
+        assertFalse(first.remove(b));
+        assertTrue(second.contains(b));
+    }
+
+    @Test
+    void lockedRegistryAppliesChangesInOrder() {
+        final Registry<Item> registry = new Registry<>();
+        final Item a = new Item(), b = new Item(), c = new Item();
+        registry.add(a);
+        registry.lock();
+        registry.add(b);
+        registry.remove(a);
+        registry.add(c);
+        assertEquals(List.of(a), registry);
+        registry.unlock();
+        assertEquals(List.of(b, c), registry);
+        assertEquals(-1, a.getIndex());
+    }
+
+    @Test
+    void clearResetsTheIndices() {
+        final Registry<Item> registry = new Registry<>();
+        final Item a = new Item(), b = new Item();
+        registry.add(a);
+        registry.add(b);
+        registry.clear();
+        assertTrue(registry.isEmpty());
+        assertEquals(-1, a.getIndex());
+        assertTrue(registry.add(b));
+        assertEquals(0, b.getIndex());
+    }
+
+    private static final class Item implements Registry.Indexed {
+        private int index = -1;
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public void setIndex(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import org.ini4j.Ini;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Creates seeded games for the tests.
+ *
+ * @author karlz
+ */
+final class TestGames {
+
+    private TestGames() {
+    }
+
+    /**
+     * @return the default config with a fixed seed
+     * @throws IOException if the default config could not be read
+     */
+    @Nonnull
+    static Ini config() throws IOException {
+        final Ini ini = new Ini(Objects.requireNonNull(TestGames.class.getResourceAsStream("/org/seekers/config.ini")));
+        ini.put("global", "seed", 42);
+        return ini;
+    }
+
+    /**
+     * Creates a game of the standard mode and adds players until it is full. The game is not started.
+     *
+     * @param ini     the config
+     * @param players the number of players
+     * @return the new game
+     */
+    @Nonnull
+    static Game create(@Nonnull Ini ini, int players) {
+        ini.put("global", "players", players);
+        final StandardMode mode = new StandardMode();
+        final Game game = mode.createGame(new Game.Properties(ini), new Camp.Properties(ini),
+                new Seeker.Properties(ini), new Goal.Properties(ini));
+        game.reset(0);
+        for (int i = 0; i < players; i++) {
+            mode.createPlayer(game);
+        }
+        return game;
+    }
+}
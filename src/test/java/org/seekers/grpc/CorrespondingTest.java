@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that only the exact identifiers of ids are parsed.
+ *
+ * @author karlz
+ */
+class CorrespondingTest {
+
+    @Test
+    void parsesIdentifiers() {
+        for (int id : new int[]{0, 1, 9, 10, 42, 12345, 999_999_999}) {
+            assertEquals(id, Corresponding.parseIdentifier(Integer.toString(id)));
+        }
+    }
+
+    @Test
+    void rejectsInvalidIdentifiers() {
+        for (String identifier : new String[]{"", "-1", "+1", " 1", "1 ", "1a", "a", "1.0", "07", "00",
+                "1000000000", "2147483648", "99999999999", "\u0661"}) {
+            assertEquals(-1, Corresponding.parseIdentifier(identifier), identifier);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import org.junit.jupiter.api.Test;
+import org.seekers.grpc.game.GoalOuterClass.Goal;
+import org.seekers.grpc.game.PhysicalOuterClass.Physical;
+import org.seekers.grpc.game.Vector2DOuterClass.Vector2D;
+import org.seekers.grpc.service.CommandResponse;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks when the delta encoder sends keyframes and that a delta is always based on the last acknowledged response.
+ *
+ * @author karlz
+ */
+class DeltaEncoderTest {
+
+    @Test
+    void firstResponseIsKeyframe() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        final CommandResponse first = response(1, 0, 0);
+        assertTrue(encoder.isKeyframe(first, null));
+        assertSame(first, encoder.encode(first, true));
+    }
+
+    @Test
+    void acknowledgedResponseIsTheBase() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(1, 0, 0), null);
+        final CommandResponse second = response(2, 5, 0);
+        assertFalse(encoder.isKeyframe(second, null));
+        final CommandResponse delta = encoder.encode(second, false);
+        assertEquals(2, delta.getPassedPlaytime());
+        assertEquals(1, delta.getGoalsCount());
+        assertEquals("0", delta.getGoals(0).getSuper().getId());
+        assertEquals(5, delta.getGoals(0).getSuper().getPosition().getX());
+    }
+
+    @Test
+    void unacknowledgedResponseForcesKeyframe() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(1, 0, 0), null);
+        final CommandResponse second = response(2, 5, 0);
+        encoder.encode(second, encoder.isKeyframe(second, null));
+        assertTrue(encoder.isKeyframe(response(3, 6, 0), null));
+    }
+
+    @Test
+    void discardedResponseForcesKeyframe() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(1, 0, 0), null);
+        final CommandResponse second = response(2, 5, 0);
+        encoder.encode(second, encoder.isKeyframe(second, null));
+        encoder.discard(second);
+        assertTrue(encoder.isKeyframe(response(3, 6, 0), null));
+    }
+
+    @Test
+    void lateAcknowledgementOfAnOlderResponseIsIgnored() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        final CommandResponse first = response(1, 0, 0);
+        send(encoder, first, null);
+        final CommandResponse second = response(2, 5, 0);
+        encoder.encode(second, encoder.isKeyframe(second, null));
+        encoder.acknowledge(first);
+        assertTrue(encoder.isKeyframe(response(3, 6, 0), null));
+    }
+
+    @Test
+    void explicitAcknowledgement() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(1, 0, 0), null);
+        final CommandResponse second = response(2, 5, 0);
+        encoder.encode(second, false);
+
+        // The client applied the second response, it becomes the base
+        final CommandResponse third = response(3, 5, 7);
+        assertFalse(encoder.isKeyframe(third, 2.0));
+        final CommandResponse delta = encoder.encode(third, false);
+        assertEquals(1, delta.getGoalsCount());
+        assertFalse(delta.getGoals(0).getSuper().hasPosition());
+        assertEquals(7, delta.getGoals(0).getSuper().getVelocity().getX());
+
+        // The client lost the third response and acknowledges the second one again, the delta is based on it
+        final CommandResponse fourth = response(4, 5, 8);
+        assertFalse(encoder.isKeyframe(fourth, 2.0));
+        assertEquals(8, encoder.encode(fourth, false).getGoals(0).getSuper().getVelocity().getX());
+
+        // The client acknowledges a response that is not the base
+        assertTrue(encoder.isKeyframe(response(5, 5, 8), 1.0));
+    }
+
+    @Test
+    void keyframeAfterInterval() {
+        final DeltaEncoder encoder = new DeltaEncoder(3);
+        send(encoder, response(0, 0, 0), null);
+        for (int i = 1; i <= 3; i++) {
+            assertFalse(send(encoder, response(i, i, 0), null));
+        }
+        assertTrue(send(encoder, response(4, 4, 0), null));
+        assertFalse(send(encoder, response(5, 5, 0), null));
+    }
+
+    @Test
+    void structuralChangeForcesKeyframe() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(1, 0, 0), null);
+        final CommandResponse more = response(2, 0, 0).toBuilder().addGoals(goal("1", 0, 0)).build();
+        assertTrue(encoder.isKeyframe(more, null));
+    }
+
+    @Test
+    void earlierPlaytimeForcesKeyframe() {
+        final DeltaEncoder encoder = new DeltaEncoder(100);
+        send(encoder, response(5, 0, 0), null);
+        assertTrue(encoder.isKeyframe(response(0, 0, 0), null));
+    }
+
+    /**
+     * Encodes the response and acknowledges it, like a call that completed successfully.
+     *
+     * @return true if the response was sent as keyframe
+     */
+    private static boolean send(@Nonnull DeltaEncoder encoder, @Nonnull CommandResponse full, Double ack) {
+        final boolean keyframe = encoder.isKeyframe(full, ack);
+        encoder.encode(full, keyframe);
+        encoder.acknowledge(full);
+        return keyframe;
+    }
+
+    @Nonnull
+    private static CommandResponse response(double playtime, double x, double vx) {
+        return CommandResponse.newBuilder().setPassedPlaytime(playtime).addGoals(goal("0", x, vx)).build();
+    }
+
+    @Nonnull
+    private static Goal goal(@Nonnull String id, double x, double vx) {
+        return Goal.newBuilder().setSuper(Physical.newBuilder().setId(id)
+                .setPosition(Vector2D.newBuilder().setX(x))
+                .setVelocity(Vector2D.newBuilder().setX(vx))).build();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.grpc;
+
+import org.ini4j.Ini;
+import org.junit.jupiter.api.Test;
+import org.seekers.game.SimulationLoop;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that calls are routed to the room of their port and that the room header never contradicts the port. The
+ * servers are not started.
+ *
+ * @author karlz
+ */
+class SeekersServerTest {
+
+    private static final int PORT = 7900;
+
+    @Test
+    void portSelectsTheRoom() throws IOException {
+        final SeekersServer server = create(2);
+        assertSame(room(server, 0), server.route(address(PORT), null));
+        assertSame(room(server, 1), server.route(address(PORT + 1), null));
+    }
+
+    @Test
+    void headerMustMatchThePort() throws IOException {
+        final SeekersServer server = create(2);
+        assertSame(room(server, 1), server.route(address(PORT + 1), "1"));
+        assertSame(room(server, 1), server.route(address(PORT + 1), " 1 "));
+        assertNull(server.route(address(PORT), "1"));
+        assertNull(server.route(address(PORT + 1), "2"));
+    }
+
+    @Test
+    void headerSelectsTheRoomOnOtherPorts() throws IOException {
+        final SeekersServer server = create(2);
+        assertSame(room(server, 1), server.route(address(PORT + 2), "1"));
+        assertSame(room(server, 0), server.route(null, "0"));
+        assertNull(server.route(address(PORT - 1), "5"));
+    }
+
+    @Test
+    void roomIsNeverGuessed() throws IOException {
+        assertNull(create(2).route(address(PORT + 2), null));
+        assertNull(create(2).route(null, null));
+        final SeekersServer single = create(1);
+        assertSame(room(single, 0), single.route(address(PORT + 2), null));
+        assertSame(room(single, 0), single.route(null, null));
+    }
+
+    @Nonnull
+    private static SeekersServer create(int rooms) throws IOException {
+        final Ini ini = new Ini(Objects.requireNonNull(
+                SeekersServerTest.class.getResourceAsStream("/org/seekers/config.ini")));
+        return new SeekersServer(ini, SimulationLoop::new, PORT, rooms);
+    }
+
+    @Nonnull
+    private static SeekersServer.Room room(@Nonnull SeekersServer server, int index) {
+        return server.getRooms().get(index);
+    }
+
+    @Nonnull
+    private static InetSocketAddress address(int port) {
+        return new InetSocketAddress("127.0.0.1", port);
+    }
+}
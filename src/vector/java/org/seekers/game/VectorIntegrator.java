@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2022  Seekers Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.seekers.game;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The vector integrator moves as many slots at once as the preferred vector species of the platform holds. It uses the
+ * incubating Vector API of the JDK and is therefore compiled separately and loaded by reflection, see
+ * {@link Integrator#create()}. It performs the same operations in the same order as the {@link ScalarIntegrator} and
+ * does not fuse multiplications and additions, so both integrators produce identical results.
+ *
+ * @author karlz
+ */
+public class VectorIntegrator implements Integrator {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void integrate(@Nonnull World world, double width, double height) {
+        final double[] positionX = world.positionX;
+        final double[] positionY = world.positionY;
+        final double[] velocityX = world.velocityX;
+        final double[] velocityY = world.velocityY;
+        final double[] accelerationX = world.accelerationX;
+        final double[] accelerationY = world.accelerationY;
+        final double[] friction = world.friction;
+        final double[] thrust = world.thrust;
+        final int size = world.getSize();
+        final int bound = SPECIES.loopBound(size);
+
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector damping = DoubleVector.broadcast(SPECIES, 1)
+                    .sub(DoubleVector.fromArray(SPECIES, friction, i));
+            DoubleVector power = DoubleVector.fromArray(SPECIES, thrust, i);
+
+            DoubleVector vx = DoubleVector.fromArray(SPECIES, velocityX, i).mul(damping)
+                    .add(DoubleVector.fromArray(SPECIES, accelerationX, i).mul(power));
+            DoubleVector vy = DoubleVector.fromArray(SPECIES, velocityY, i).mul(damping)
+                    .add(DoubleVector.fromArray(SPECIES, accelerationY, i).mul(power));
+            vx.intoArray(velocityX, i);
+            vy.intoArray(velocityY, i);
+
+            wrap(DoubleVector.fromArray(SPECIES, positionX, i).add(vx), width).intoArray(positionX, i);
+            wrap(DoubleVector.fromArray(SPECIES, positionY, i).add(vy), height).intoArray(positionY, i);
+        }
+        ScalarIntegrator.integrate(world, width, height, i, size);
+    }
+
+    private static DoubleVector wrap(DoubleVector v, double max) {
+        VectorMask<Double> below = v.lt(0);
+        VectorMask<Double> above = v.compare(VectorOperators.GT, max);
+        return v.add(max, below).sub(max, above);
+    }
+}